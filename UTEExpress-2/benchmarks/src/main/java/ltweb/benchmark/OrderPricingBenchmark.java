@@ -0,0 +1,119 @@
+package ltweb.benchmark;
+
+import ltweb.dto.CreateOrderDTO;
+import ltweb.dto.OrderSummaryDTO;
+import ltweb.entity.ServiceType;
+import ltweb.entity.Warehouse;
+import ltweb.repository.TariffBandRepository;
+import ltweb.repository.WarehouseRepository;
+import ltweb.service.CustomerOrderService;
+import ltweb.service.GeocodingService;
+import ltweb.service.ShippingFeeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-order pricing cost: distance resolution from the order addresses (or the
+ * sender's coordinates) followed by fee and delivery estimation. A cache size
+ * of 0 forces every address through the gazetteer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPricingBenchmark {
+
+	private static final String[] ADDRESSES = {
+			"268 Lý Thường Kiệt, Phường 14, Quận 10, TP. Hồ Chí Minh",
+			"1 Võ Văn Ngân, Linh Chiểu, Thủ Đức, Hồ Chí Minh",
+			"54 Nguyễn Lương Bằng, Liên Chiểu, Đà Nẵng",
+			"1 Đại Cồ Việt, Hai Bà Trưng, Hà Nội",
+			"12 Trần Phú, TP. Nha Trang, Khánh Hòa",
+			"3/2 Xuân Khánh, Ninh Kiều, Cần Thơ",
+			"So 5 Le Duan, Q1, HCM",
+			"Thôn 3, Xã Ea Tu, Buôn Ma Thuột, Đắk Lắk" };
+
+	@Param({ "0", "50000" })
+	private int geocodeCacheMaxSize;
+
+	@Param({ "false", "true" })
+	private boolean senderCoordinates;
+
+	private CustomerOrderService customerOrderService;
+	private GeocodingService geocodingService;
+	private CreateOrderDTO[] orders;
+	private int cursor;
+
+	@Setup
+	public void setUp() {
+		geocodingService = new GeocodingService();
+		Stubs.setField(geocodingService, "gazetteerPath", "geo/vn-gazetteer.txt");
+		Stubs.setField(geocodingService, "roadFactor", 1.4);
+		Stubs.setField(geocodingService, "defaultDistanceKm", 100.0);
+		Stubs.setField(geocodingService, "minDistanceKm", 10.0);
+		Stubs.setField(geocodingService, "cacheMaxSize", geocodeCacheMaxSize);
+		Stubs.setField(geocodingService, "cacheTtlSeconds", 86400L);
+		Stubs.invoke(geocodingService, "init");
+
+		ShippingFeeService shippingFeeService = new ShippingFeeService(Stubs.repository(TariffBandRepository.class,
+				Map.of("findByIsActiveTrue", args -> List.of())));
+
+		Warehouse destination = Warehouse.builder().id(1L).code("WH-HCM").name("Kho Hồ Chí Minh").build();
+		WarehouseRepository warehouseRepository = Stubs.repository(WarehouseRepository.class,
+				Map.of("findById", args -> Optional.of(destination)));
+
+		customerOrderService = new CustomerOrderService(null, null, warehouseRepository, null, shippingFeeService,
+				null, null, geocodingService);
+
+		orders = new CreateOrderDTO[ADDRESSES.length * ADDRESSES.length];
+		int n = 0;
+		for (String sender : ADDRESSES) {
+			for (String recipient : ADDRESSES) {
+				CreateOrderDTO order = CreateOrderDTO.builder()
+						.senderName("Nguyễn Văn A")
+						.senderPhone("0900000001")
+						.senderAddress(sender)
+						.recipientName("Trần Thị B")
+						.recipientPhone("0900000002")
+						.recipientAddress(recipient)
+						.serviceType(ServiceType.values()[n % ServiceType.values().length])
+						.itemDescription("Tài liệu")
+						.weight(0.5 + n % 7)
+						.length(30.0)
+						.width(20.0)
+						.height(10.0)
+						.quantity(1)
+						.destinationWarehouseId(1L)
+						.build();
+				if (senderCoordinates) {
+					order.setSenderLatitude(10.8507);
+					order.setSenderLongitude(106.7720);
+				}
+				orders[n++] = order;
+			}
+		}
+	}
+
+	private CreateOrderDTO next() {
+		CreateOrderDTO order = orders[cursor];
+		cursor = cursor + 1 == orders.length ? 0 : cursor + 1;
+		return order;
+	}
+
+	@Benchmark
+	public OrderSummaryDTO calculateOrderSummary() {
+		return customerOrderService.calculateOrderSummary(next());
+	}
+
+	@Benchmark
+	public double calculateDistanceKm() {
+		CreateOrderDTO order = next();
+		return geocodingService.calculateDistanceKm(order.getSenderAddress(), order.getRecipientAddress());
+	}
+}
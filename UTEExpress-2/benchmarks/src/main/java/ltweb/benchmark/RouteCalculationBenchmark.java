@@ -0,0 +1,105 @@
+package ltweb.benchmark;
+
+import ltweb.entity.Route;
+import ltweb.entity.Warehouse;
+import ltweb.repository.RouteRepository;
+import ltweb.service.RouteCalculationService;
+import ltweb.service.RouteGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code calculateRoute} over a synthetic network: a ring of warehouses plus
+ * random shortcuts. A cache size of 0 measures the uncached lookup path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteCalculationBenchmark {
+
+	private static final int PAIRS = 1024;
+	private static final int SHORTCUTS_PER_WAREHOUSE = 3;
+
+	@Param({ "50", "500" })
+	private int warehouseCount;
+
+	@Param({ "GRAPH", "TABLE" })
+	private RouteCalculationService.RoutingMode routingMode;
+
+	@Param({ "0", "10000" })
+	private int cacheMaxSize;
+
+	private RouteCalculationService routeCalculationService;
+	private Warehouse[] fromWarehouses;
+	private Warehouse[] toWarehouses;
+	private int cursor;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		List<Warehouse> warehouses = new ArrayList<>();
+		for (int i = 1; i <= warehouseCount; i++) {
+			warehouses.add(Warehouse.builder().id((long) i).code("WH" + i).name("Kho " + i).build());
+		}
+
+		List<Route> routes = new ArrayList<>();
+		long routeId = 1;
+		for (int i = 0; i < warehouseCount; i++) {
+			Warehouse from = warehouses.get(i);
+			routes.add(route(routeId++, from, warehouses.get((i + 1) % warehouseCount), 20 + random.nextInt(200)));
+			for (int k = 0; k < SHORTCUTS_PER_WAREHOUSE; k++) {
+				Warehouse to = warehouses.get(random.nextInt(warehouseCount));
+				if (to != from) {
+					routes.add(route(routeId++, from, to, 50 + random.nextInt(1500)));
+				}
+			}
+		}
+
+		RouteRepository routeRepository = Stubs.repository(RouteRepository.class,
+				Map.of("findByIsActiveTrue", args -> routes));
+		routeCalculationService = new RouteCalculationService(routeRepository);
+		Stubs.setField(routeCalculationService, "routeWeight", RouteGraph.Weight.DISTANCE);
+		Stubs.setField(routeCalculationService, "routingMode", routingMode);
+		Stubs.setField(routeCalculationService, "routeCacheMaxSize", cacheMaxSize);
+		Stubs.setField(routeCalculationService, "routeCacheTtlSeconds", 600L);
+		Stubs.invoke(routeCalculationService, "initRouteCache");
+		// Build the in-memory structures here so only lookups are measured
+		if (routingMode == RouteCalculationService.RoutingMode.TABLE) {
+			routeCalculationService.getRouteTable();
+		} else {
+			routeCalculationService.getRouteGraph();
+		}
+
+		fromWarehouses = new Warehouse[PAIRS];
+		toWarehouses = new Warehouse[PAIRS];
+		for (int i = 0; i < PAIRS; i++) {
+			fromWarehouses[i] = warehouses.get(random.nextInt(warehouseCount));
+			toWarehouses[i] = warehouses.get(random.nextInt(warehouseCount));
+		}
+	}
+
+	private static Route route(long id, Warehouse from, Warehouse to, double distanceKm) {
+		return Route.builder()
+				.id(id)
+				.fromWarehouse(from)
+				.toWarehouse(to)
+				.distanceKm(distanceKm)
+				.estimatedHours(distanceKm / 50)
+				.isActive(true)
+				.build();
+	}
+
+	@Benchmark
+	public List<RouteCalculationService.RouteSegment> calculateRoute() {
+		int i = cursor++ & (PAIRS - 1);
+		return routeCalculationService.calculateRoute(fromWarehouses[i], toWarehouses[i]);
+	}
+}
@@ -0,0 +1,86 @@
+package ltweb.benchmark;
+
+import ltweb.entity.ServiceType;
+import ltweb.repository.TariffBandRepository;
+import ltweb.service.ShippingFeeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShippingFeeBenchmark {
+
+	// Power of two so the input cursor wraps with a mask
+	private static final int INPUTS = 1024;
+
+	private ShippingFeeService shippingFeeService;
+	private Double[] distances;
+	private Double[] weights;
+	private double[] rawDistances;
+	private double[] rawWeights;
+	private ServiceType[] serviceTypes;
+	private long[] fees;
+	private int[] deliveryDays;
+	private int cursor;
+
+	@Setup
+	public void setUp() {
+		shippingFeeService = new ShippingFeeService(Stubs.repository(TariffBandRepository.class,
+				Map.of("findByIsActiveTrue", args -> List.of())));
+		Stubs.setField(shippingFeeService, "maxBatchSize", INPUTS);
+
+		Random random = new Random(42);
+		distances = new Double[INPUTS];
+		weights = new Double[INPUTS];
+		rawDistances = new double[INPUTS];
+		rawWeights = new double[INPUTS];
+		serviceTypes = new ServiceType[INPUTS];
+		for (int i = 0; i < INPUTS; i++) {
+			rawDistances[i] = Math.round(random.nextDouble() * 1800 * 10) / 10.0;
+			rawWeights[i] = Math.round((0.1 + random.nextDouble() * 30) * 10) / 10.0;
+			distances[i] = rawDistances[i];
+			weights[i] = rawWeights[i];
+			serviceTypes[i] = ServiceType.values()[random.nextInt(ServiceType.values().length)];
+		}
+		fees = new long[INPUTS];
+		deliveryDays = new int[INPUTS];
+	}
+
+	private int next() {
+		return cursor++ & (INPUTS - 1);
+	}
+
+	@Benchmark
+	public BigDecimal calculateShippingFee() {
+		int i = next();
+		return shippingFeeService.calculateShippingFee(distances[i], weights[i], serviceTypes[i]);
+	}
+
+	@Benchmark
+	public long calculateShippingFeeVnd() {
+		int i = next();
+		return shippingFeeService.calculateShippingFeeVnd(rawDistances[i], rawWeights[i], serviceTypes[i]);
+	}
+
+	@Benchmark
+	public int getEstimatedDeliveryDays() {
+		int i = next();
+		return shippingFeeService.getEstimatedDeliveryDays(distances[i], serviceTypes[i]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public long[] calculateShippingFees() {
+		shippingFeeService.calculateShippingFees(rawDistances, rawWeights, serviceTypes, fees, deliveryDays);
+		return fees;
+	}
+}
@@ -0,0 +1,62 @@
+package ltweb.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Wiring helpers for running services outside Spring: repository interfaces are
+ * stubbed with dynamic proxies and {@code @Value} fields are set reflectively.
+ */
+final class Stubs {
+
+	private Stubs() {
+	}
+
+	/**
+	 * @return a proxy answering the named methods; any other repository call
+	 *         fails, so a benchmark never silently measures a no-op
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			Function<Object[], Object> answer = answers.get(method.getName());
+			if (answer != null) {
+				return answer.apply(args);
+			}
+			switch (method.getName()) {
+			case "toString":
+				return type.getSimpleName() + " stub";
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			default:
+				throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+			}
+		});
+	}
+
+	static void setField(Object target, String name, Object value) {
+		try {
+			Field field = target.getClass().getDeclaredField(name);
+			field.setAccessible(true);
+			field.set(target, value);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot set " + name, e);
+		}
+	}
+
+	/** Calls a no-argument lifecycle method such as a {@code @PostConstruct} initializer. */
+	static void invoke(Object target, String name) {
+		try {
+			Method method = target.getClass().getDeclaredMethod(name);
+			method.setAccessible(true);
+			method.invoke(target);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot invoke " + name, e);
+		}
+	}
+}
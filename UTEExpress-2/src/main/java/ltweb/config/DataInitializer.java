@@ -53,7 +53,7 @@ public class DataInitializer implements CommandLineRunner {
 		Warehouse warehouseHN = Warehouse.builder().code("WH-HN").name("Warehouse Hanoi")
 				.address("No.1 Dai Co Viet, Hai Ba Trung, Hanoi").phone("0241234567")
 				.email("warehouse.hn@uteexpress.com").manager("Nguyen Van A").totalCapacity(15000).currentStock(0)
-				.user(hnWarehouseUser).build();
+				.latitude(21.0049).longitude(105.8434).user(hnWarehouseUser).build();
 		warehouseHN = warehouseRepository.save(warehouseHN);
 
 		User hnShipperUser = User.builder().username("shipper_hn").password(passwordEncoder.encode("123456"))
@@ -75,7 +75,7 @@ public class DataInitializer implements CommandLineRunner {
 		Warehouse warehouseDN = Warehouse.builder().code("WH-DN").name("Warehouse Danang")
 				.address("No.54 Nguyen Luong Bang, Hoa Khanh, Danang").phone("0236234567")
 				.email("warehouse.dn@uteexpress.com").manager("Le Thi C").totalCapacity(12000).currentStock(0)
-				.user(dnWarehouseUser).build();
+				.latitude(16.0740).longitude(108.1500).user(dnWarehouseUser).build();
 		warehouseDN = warehouseRepository.save(warehouseDN);
 
 		User dnShipperUser = User.builder().username("shipper_dn").password(passwordEncoder.encode("123456"))
@@ -96,7 +96,8 @@ public class DataInitializer implements CommandLineRunner {
 
 		Warehouse warehouseHCM = Warehouse.builder().code("WH-HCM").name("Warehouse HCMC")
 				.address("No.1 Vo Van Ngan, Thu Duc, HCMC").phone("0283234567").email("warehouse.hcm@uteexpress.com")
-				.manager("Hoang Van E").totalCapacity(20000).currentStock(0).user(hcmWarehouseUser).build();
+				.manager("Hoang Van E").totalCapacity(20000).currentStock(0).latitude(10.8507).longitude(106.7720)
+				.user(hcmWarehouseUser).build();
 		warehouseHCM = warehouseRepository.save(warehouseHCM);
 
 		User hcmShipperUser = User.builder().username("shipper_hcm").password(passwordEncoder.encode("123456"))
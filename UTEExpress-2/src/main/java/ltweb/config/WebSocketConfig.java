@@ -1,18 +1,76 @@
 package ltweb.config;
 
+import ltweb.service.ClusterBrokerBridge;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+/**
+ * STOMP endpoints and broker. {@code app.websocket.broker.mode} selects the broker:
+ * SIMPLE keeps everything in this process (single node), RELAY forwards to an
+ * external STOMP broker (RabbitMQ, ActiveMQ), CLUSTER keeps the in-process broker
+ * and replicates messages between nodes through the database
+ * ({@link ClusterBrokerBridge}).
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final String USER_DESTINATION_BROADCAST = "/topic/unresolved-user-destination";
+    private static final String USER_REGISTRY_BROADCAST = "/topic/simp-user-registry";
+
+    private final ObjectProvider<ClusterBrokerBridge> clusterBrokerBridge;
+
+    @Value("${app.websocket.broker.mode:SIMPLE}")
+    private String brokerMode;
+
+    @Value("${app.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    public WebSocketConfig(ObjectProvider<ClusterBrokerBridge> clusterBrokerBridge) {
+        this.clusterBrokerBridge = clusterBrokerBridge;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        switch (brokerMode.toUpperCase()) {
+            case "RELAY" -> {
+                var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                        .setRelayHost(relayHost)
+                        .setRelayPort(relayPort)
+                        .setClientLogin(relayLogin)
+                        .setClientPasscode(relayPasscode)
+                        .setSystemLogin(relayLogin)
+                        .setSystemPasscode(relayPasscode)
+                        // Lets every node resolve /user destinations for sessions held by other nodes
+                        .setUserDestinationBroadcast(USER_DESTINATION_BROADCAST)
+                        .setUserRegistryBroadcast(USER_REGISTRY_BROADCAST);
+                if (!relayVirtualHost.isBlank()) {
+                    relay.setVirtualHost(relayVirtualHost);
+                }
+            }
+            case "CLUSTER" -> {
+                config.enableSimpleBroker("/topic", "/queue");
+                clusterBrokerBridge.ifAvailable(bridge -> config.configureBrokerChannel().interceptors(bridge));
+            }
+            default -> config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -26,4 +84,4 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*");
     }
-}
\ No newline at end of file
+}
@@ -14,10 +14,8 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/admin")
@@ -29,6 +27,7 @@ public class AdminController {
     private final AuthService authService;
     private final UserService userService;
     private final OrderService orderService;
+    private final DashboardStatsService dashboardStatsService;
     private final TrackingService trackingService;
     private final ChatService chatService;
     private final NotificationService notificationService;
@@ -44,31 +43,9 @@ public class AdminController {
         long totalWarehouseStaff = userService.countUsersByRole("ROLE_WAREHOUSE_STAFF");
         long activeUsers = userService.countActiveUsers();
         
-        // ✅ THÊM: Order statistics
-        List<Order> allOrders = orderService.getAllOrders();
-        List<Order> recentOrders = allOrders.stream()
-                .sorted((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()))
-                .limit(10)
-                .collect(Collectors.toList());
-        long totalOrders = allOrders.size();
-        long pendingOrders = allOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.CHO_GIAO)
-            .count();
-        long inProgressOrders = allOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.DANG_GIAO)
-            .count();
-        long completedOrders = allOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.HOAN_THANH)
-            .count();
-        long failedOrders = allOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.THAT_BAI || o.getStatus() == OrderStatus.HUY)
-            .count();
-        
-        // ✅ THÊM: Revenue statistics
-        BigDecimal totalRevenue = allOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.HOAN_THANH)
-            .map(Order::getShipmentFee)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Order and revenue statistics: one aggregate query, briefly cached
+        DashboardStatsDTO orderStats = dashboardStatsService.getOrderStats(null, null);
+        List<Order> recentOrders = orderService.getRecentOrders(10);
         
         // Chat & Notifications
         long unreadChats = chatService.getTotalUnreadForAdmin();
@@ -82,12 +59,12 @@ public class AdminController {
         model.addAttribute("activeUsers", activeUsers);
         
         // ✅ THÊM: Order statistics to model
-        model.addAttribute("totalOrders", totalOrders);
-        model.addAttribute("pendingOrders", pendingOrders);
-        model.addAttribute("inProgressOrders", inProgressOrders);
-        model.addAttribute("completedOrders", completedOrders);
-        model.addAttribute("failedOrders", failedOrders);
-        model.addAttribute("totalRevenue", totalRevenue);
+        model.addAttribute("totalOrders", orderStats.getTotalOrders());
+        model.addAttribute("pendingOrders", orderStats.getPendingOrders());
+        model.addAttribute("inProgressOrders", orderStats.getInProgressOrders());
+        model.addAttribute("completedOrders", orderStats.getCompletedOrders());
+        model.addAttribute("failedOrders", orderStats.getFailedOrders());
+        model.addAttribute("totalRevenue", orderStats.getTotalRevenue());
         
         model.addAttribute("unreadChats", unreadChats);
         model.addAttribute("unreadNotifications", unreadNotifications);
@@ -1,5 +1,7 @@
 package ltweb.controller;
 
+import ltweb.dto.OrderStatsDTO;
+import ltweb.dto.ReportBatchStatusDTO;
 import ltweb.entity.*;
 import ltweb.service.*;
 import lombok.RequiredArgsConstructor;
@@ -10,10 +12,15 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import ltweb.repository.ShipperRepository;
+import ltweb.util.DownloadUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,9 +30,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AdminReportController {
     
-    private final OrderService orderService;
+    private final OrderAnalyticsService orderAnalyticsService;
     private final ShipperRepository shipperRepository;
     private final UserService userService;
+    private final ExportService exportService;
+    private final ReportBatchService reportBatchService;
 
     @GetMapping
     public String reportsPage(
@@ -34,21 +43,11 @@ public class AdminReportController {
             @RequestParam(required = false) String period,
             Model model) {
         
-        // Get all orders
-        List<Order> allOrders = orderService.getAllOrders();
-        
-        // Filter by date range if provided
-        if (startDate != null && !startDate.isEmpty() && endDate != null && !endDate.isEmpty()) {
-            LocalDateTime start = LocalDateTime.parse(startDate + "T00:00:00");
-            LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59");
-            
-            allOrders = allOrders.stream()
-                .filter(o -> o.getCreatedAt().isAfter(start) && o.getCreatedAt().isBefore(end))
-                .collect(Collectors.toList());
-        }
+        // Totals come from the report rollups, not from the orders table
+        OrderStatsDTO orderStats = getOrderStats(startDate, endDate);
         
         // Calculate statistics
-        Map<String, Object> stats = calculateStatistics(allOrders);
+        Map<String, Object> stats = calculateStatistics(orderStats);
         
         model.addAttribute("totalRevenue", stats.get("totalRevenue"));
         model.addAttribute("totalOrders", stats.get("totalOrders"));
@@ -70,70 +69,125 @@ public class AdminReportController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String endDate,
             @RequestParam(required = false) String period) {
         
-        List<Order> allOrders = orderService.getAllOrders();
+        OrderStatsDTO orderStats = getOrderStats(startDate, endDate);
         
-        // Filter by date range
-        if (startDate != null && !startDate.isEmpty() && endDate != null && !endDate.isEmpty()) {
-            LocalDateTime start = LocalDateTime.parse(startDate + "T00:00:00");
-            LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59");
-            
-            allOrders = allOrders.stream()
-                .filter(o -> o.getCreatedAt().isAfter(start) && o.getCreatedAt().isBefore(end))
-                .collect(Collectors.toList());
-        }
-        
-        Map<String, Object> data = calculateStatistics(allOrders);
+        Map<String, Object> data = calculateStatistics(orderStats);
         
         // Add chart data
-        data.put("revenueChart", generateRevenueChartData(allOrders, period));
-        data.put("orderStatusChart", generateOrderStatusChartData(allOrders));
-        data.put("serviceTypeChart", generateServiceTypeChartData(allOrders));
+        data.put("revenueChart", generateRevenueChartData(orderStats, period));
+        data.put("orderStatusChart", generateOrderStatusChartData(orderStats));
+        data.put("serviceTypeChart", generateServiceTypeChartData(orderStats));
         data.put("shipperPerformance", generateShipperPerformanceData());
         
         return ResponseEntity.ok(data);
     }
     
-    private Map<String, Object> calculateStatistics(List<Order> orders) {
+    /**
+     * Starts generating {@code reportType} reports for every warehouse, for each
+     * period from {@code periodStart} to {@code periodEnd} (one period when omitted).
+     */
+    @PostMapping("/batch")
+    @ResponseBody
+    public ResponseEntity<?> startReportBatch(
+            @RequestParam ReportType reportType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodEnd) {
+        try {
+            User admin = userService.getCurrentUser();
+            ReportBatchStatusDTO status = reportBatchService.startBatch(reportType, periodStart,
+                    periodEnd != null ? periodEnd : periodStart, admin);
+            return ResponseEntity.ok(status);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/batch")
+    @ResponseBody
+    public ResponseEntity<List<ReportBatchStatusDTO>> getReportBatches() {
+        return ResponseEntity.ok(reportBatchService.getRecentJobs());
+    }
+    
+    @GetMapping("/batch/{jobId}")
+    @ResponseBody
+    public ResponseEntity<?> getReportBatch(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(reportBatchService.getStatus(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /** Streams every order in the range (all time when a bound is missing) as CSV or XLSX. */
+    @GetMapping("/export/orders")
+    public void exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String endDate,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        
+        ExportService.Format exportFormat;
+        LocalDate from;
+        LocalDate to;
+        try {
+            exportFormat = ExportService.Format.valueOf(format.toUpperCase());
+            boolean ranged = startDate != null && !startDate.isEmpty() && endDate != null && !endDate.isEmpty();
+            from = ranged ? LocalDate.parse(startDate) : LocalDate.of(1900, 1, 1);
+            to = ranged ? LocalDate.parse(endDate) : LocalDate.now();
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid export parameters");
+            return;
+        }
+        
+        if (!exportService.tryAcquire()) {
+            response.sendError(429, "Too many exports running, try again later");
+            return;
+        }
+        try (OutputStream out = DownloadUtils.openAttachment(request, response, exportFormat,
+                "orders_" + from + "_" + to)) {
+            exportService.exportOrders(from, to, exportFormat, out);
+        } finally {
+            exportService.release();
+        }
+    }
+    
+    // Date range filter applies only when both ends are given
+    private OrderStatsDTO getOrderStats(String startDate, String endDate) {
+        if (startDate != null && !startDate.isEmpty() && endDate != null && !endDate.isEmpty()) {
+            return orderAnalyticsService.getStats(LocalDate.parse(startDate), LocalDate.parse(endDate));
+        }
+        return orderAnalyticsService.getStats(null, null);
+    }
+    
+    private Map<String, Object> calculateStatistics(OrderStatsDTO orderStats) {
         Map<String, Object> stats = new HashMap<>();
         
         // Total revenue (only completed orders)
-        BigDecimal totalRevenue = orders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.HOAN_THANH)
-            .map(Order::getShipmentFee)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        stats.put("totalRevenue", totalRevenue);
-        stats.put("totalOrders", orders.size());
+        stats.put("totalRevenue", orderStats.getTotalRevenue());
+        stats.put("totalOrders", orderStats.getTotalOrders());
         
         // Active shippers count
         long activeShippers = userService.countUsersByRole("ROLE_SHIPPER");
         stats.put("totalShippers", activeShippers);
         
         // Success rate
-        long completedOrders = orders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.HOAN_THANH)
-            .count();
-        
-        double successRate = orders.isEmpty() ? 0.0 : 
-            (completedOrders * 100.0 / orders.size());
+        double successRate = orderStats.getTotalOrders() == 0 ? 0.0 :
+            (orderStats.getCompletedOrders() * 100.0 / orderStats.getTotalOrders());
         
         stats.put("successRate", String.format("%.1f", successRate));
         
         return stats;
     }
     
-    private Map<String, Object> generateRevenueChartData(List<Order> orders, String period) {
+    private Map<String, Object> generateRevenueChartData(OrderStatsDTO orderStats, String period) {
         Map<String, Object> chartData = new HashMap<>();
         
-        // Group orders by month
+        // Group revenue by month
         Map<String, BigDecimal> monthlyRevenue = new LinkedHashMap<>();
         
-        orders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.HOAN_THANH)
-            .forEach(order -> {
-                String month = order.getCreatedAt().getMonth().toString().substring(0, 3);
-                monthlyRevenue.merge(month, order.getShipmentFee(), BigDecimal::add);
-            });
+        orderStats.getRevenueByMonth().forEach((month, revenue) ->
+            monthlyRevenue.merge(month.getMonth().toString().substring(0, 3), revenue, BigDecimal::add));
         
         chartData.put("labels", new ArrayList<>(monthlyRevenue.keySet()));
         chartData.put("data", new ArrayList<>(monthlyRevenue.values()));
@@ -141,14 +195,10 @@ public class AdminReportController {
         return chartData;
     }
     
-    private Map<String, Object> generateOrderStatusChartData(List<Order> orders) {
+    private Map<String, Object> generateOrderStatusChartData(OrderStatsDTO orderStats) {
         Map<String, Object> chartData = new HashMap<>();
         
-        Map<String, Long> statusCount = orders.stream()
-            .collect(Collectors.groupingBy(
-                o -> o.getStatus().name(),
-                Collectors.counting()
-            ));
+        Map<String, Long> statusCount = orderStats.getOrdersByStatus();
         
         List<String> labels = Arrays.asList("Hoàn thành", "Đang giao", "Chờ giao", "Thất bại", "Đã hủy");
         List<Long> data = Arrays.asList(
@@ -165,14 +215,10 @@ public class AdminReportController {
         return chartData;
     }
     
-    private Map<String, Object> generateServiceTypeChartData(List<Order> orders) {
+    private Map<String, Object> generateServiceTypeChartData(OrderStatsDTO orderStats) {
         Map<String, Object> chartData = new HashMap<>();
         
-        Map<String, Long> serviceCount = orders.stream()
-            .collect(Collectors.groupingBy(
-                o -> o.getServiceType().name(),
-                Collectors.counting()
-            ));
+        Map<String, Long> serviceCount = orderStats.getOrdersByServiceType();
         
         List<String> labels = Arrays.asList("Nhanh", "Chuẩn", "Tiết kiệm");
         List<Long> data = Arrays.asList(
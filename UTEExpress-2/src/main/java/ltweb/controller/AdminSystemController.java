@@ -0,0 +1,44 @@
+package ltweb.controller;
+
+import ltweb.service.RouteCalculationService;
+import ltweb.service.ShippingFeeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@Controller
+@RequestMapping("/admin/system")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AdminSystemController {
+
+    private final RouteCalculationService routeCalculationService;
+    private final ShippingFeeService shippingFeeService;
+
+    @GetMapping("/route-cache")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getRouteCacheStats() {
+        return ResponseEntity.ok(routeCalculationService.getRouteCacheStats());
+    }
+
+    @GetMapping("/tariff")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getTariff() {
+        return ResponseEntity.ok(shippingFeeService.getTariffInfo());
+    }
+
+    @PostMapping("/tariff/reload")
+    @ResponseBody
+    public ResponseEntity<?> reloadTariff() {
+        try {
+            shippingFeeService.reloadTariff();
+            return ResponseEntity.ok(shippingFeeService.getTariffInfo());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -35,6 +35,7 @@ public class CustomerOrderController {
 	private final WarehouseService warehouseService;
 	private final OrderService orderService;
 	private final TrackingService trackingService;
+	private final WarehouseLocatorService warehouseLocatorService;
 
 
 	@GetMapping
@@ -54,6 +55,23 @@ public class CustomerOrderController {
 		return "customer/create-order";
 	}
 
+	@GetMapping("/nearest-warehouses")
+	@ResponseBody
+	public ResponseEntity<List<Map<String, Object>>> getNearestWarehouses(@RequestParam Double latitude,
+			@RequestParam Double longitude, @RequestParam(defaultValue = "3") int limit) {
+		List<Map<String, Object>> response = warehouseLocatorService
+				.findNearestWarehouses(latitude, longitude, Math.min(limit, 20)).stream().map(n -> {
+					Map<String, Object> item = new HashMap<>();
+					item.put("id", n.getWarehouse().getId());
+					item.put("code", n.getWarehouse().getCode());
+					item.put("name", n.getWarehouse().getName());
+					item.put("address", n.getWarehouse().getAddress());
+					item.put("distanceKm", Math.round(n.getDistanceKm() * 10) / 10.0);
+					return item;
+				}).collect(Collectors.toList());
+		return ResponseEntity.ok(response);
+	}
+
 	@PostMapping("/calculate")
 	public String calculateOrder(@Valid @ModelAttribute("orderDTO") CreateOrderDTO dto, BindingResult result,
 			Model model, HttpSession session) {
@@ -4,7 +4,9 @@ import ltweb.entity.ReportType;
 import ltweb.entity.User;
 import ltweb.entity.Warehouse;
 import ltweb.entity.WarehouseReport;
+import ltweb.service.ExportService;
 import ltweb.service.ReportService;
+import ltweb.util.DownloadUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,7 +15,11 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -24,6 +30,7 @@ import java.util.List;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ExportService exportService;
 
     @GetMapping
     public String listReports(Model model, HttpSession session) {
@@ -33,6 +40,37 @@ public class ReportController {
         return "warehouse/reports";
     }
 
+    @GetMapping("/export")
+    public void exportReports(@RequestParam(defaultValue = "xlsx") String format,
+                              HttpSession session,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        Warehouse warehouse = (Warehouse) session.getAttribute("currentWarehouse");
+        if (warehouse == null) {
+            // The dashboard puts the warehouse in the session; send the user there first
+            response.sendRedirect(request.getContextPath() + "/warehouse/dashboard");
+            return;
+        }
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported format: " + format);
+            return;
+        }
+
+        if (!exportService.tryAcquire()) {
+            response.sendError(429, "Too many exports running, try again later");
+            return;
+        }
+        try (OutputStream out = DownloadUtils.openAttachment(request, response, exportFormat,
+                "reports_" + warehouse.getCode())) {
+            exportService.exportWarehouseReports(warehouse.getId(), exportFormat, out);
+        } finally {
+            exportService.release();
+        }
+    }
+
     @GetMapping("/{id}")
     public String reportDetail(@PathVariable Long id, Model model) {
         WarehouseReport report = reportService.getReportById(id);
@@ -30,6 +30,7 @@ public class ShipperController {
     private final CloudinaryService cloudinaryService;
     private final NotificationService notificationService;
     private final TrackingService trackingService;
+    private final LocationIngestionService locationIngestionService;
 
     @GetMapping("/dashboard")
     public String dashboard(Model model, Authentication auth, HttpSession session) {
@@ -424,7 +425,7 @@ public class ShipperController {
             );
             
             for (Shipment shipment : activeShipments) {
-                trackingService.updateShipmentLocation(
+                locationIngestionService.record(
                     shipment.getId(), 
                     latitude, 
                     longitude, 
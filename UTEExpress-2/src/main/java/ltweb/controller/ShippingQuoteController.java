@@ -0,0 +1,44 @@
+package ltweb.controller;
+
+import ltweb.dto.ShippingQuoteRequestDTO;
+import ltweb.dto.ShippingQuoteResponseDTO;
+import ltweb.service.ShippingFeeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+
+import java.util.Map;
+
+@Controller
+@RequestMapping("/api/shipping")
+@RequiredArgsConstructor
+public class ShippingQuoteController {
+
+    private final ShippingFeeService shippingFeeService;
+
+    @PostMapping("/quotes")
+    @ResponseBody
+    public ResponseEntity<ShippingQuoteResponseDTO> quoteBatch(@Valid @RequestBody ShippingQuoteRequestDTO request) {
+        int count = request.getDistances().length;
+        long[] fees = new long[count];
+        int[] deliveryDays = new int[count];
+        shippingFeeService.calculateShippingFees(request.getDistances(), request.getWeights(),
+                request.getServiceTypes(), fees, deliveryDays);
+
+        return ResponseEntity.ok(ShippingQuoteResponseDTO.builder()
+                .count(count)
+                .fees(fees)
+                .estimatedDeliveryDays(deliveryDays)
+                .build());
+    }
+
+    // Mismatched arrays, oversized batches and unpriceable tuples
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseBody
+    public ResponseEntity<Map<String, String>> handleInvalidQuote(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -1,15 +1,23 @@
 package ltweb.controller;
 
+import ltweb.dto.LocationUpdateDTO;
+import ltweb.dto.TrackingEventDTO;
+import ltweb.dto.TrackingTrailDTO;
 import ltweb.entity.Order;
 import ltweb.entity.Shipment;
 import ltweb.entity.Tracking;
+import ltweb.service.LocationIngestionService;
 import ltweb.service.OrderService;
 import ltweb.service.TrackingService;
+import ltweb.service.TrackingStreamService;
+import ltweb.service.TrackingTrailService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,14 +32,16 @@ public class TrackingController {
 
     private final TrackingService trackingService;
     private final OrderService orderService;
+    private final LocationIngestionService locationIngestionService;
+    private final TrackingTrailService trackingTrailService;
+    private final TrackingStreamService trackingStreamService;
 
 
     @GetMapping("/api/tracking/shipment/{shipmentId}")
     @ResponseBody
-    public ResponseEntity<List<Tracking>> getTrackingByShipment(@PathVariable Long shipmentId) {
+    public ResponseEntity<TrackingTrailDTO> getTrackingByShipment(@PathVariable Long shipmentId) {
         try {
-            List<Tracking> trackings = trackingService.getTrackingsByShipmentId(shipmentId);
-            return ResponseEntity.ok(trackings);
+            return ResponseEntity.ok(trackingTrailService.getTrail(shipmentId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -39,41 +49,56 @@ public class TrackingController {
 
     @PostMapping("/api/tracking/update")
     @ResponseBody
-    public ResponseEntity<Tracking> updateTracking(@RequestParam Long shipmentId,
-                                                   @RequestParam Double latitude,
-                                                   @RequestParam Double longitude,
-                                                   @RequestParam(required = false) String description) {
+    public ResponseEntity<LocationUpdateDTO> updateTracking(@RequestParam Long shipmentId,
+                                                            @RequestParam Double latitude,
+                                                            @RequestParam Double longitude,
+                                                            @RequestParam(required = false) String description) {
         try {
-            Tracking tracking = trackingService.updateShipmentLocation(shipmentId, latitude, longitude, description);
-            return ResponseEntity.ok(tracking);
+            // Subscribers get the point on the next broadcast tick; storage is sampled and batched
+            LocationUpdateDTO location = locationIngestionService.record(shipmentId, latitude, longitude, description);
+            return ResponseEntity.accepted().body(location);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping("/api/tracking/shipment/{shipmentId}/latest")
+    @ResponseBody
+    public ResponseEntity<LocationUpdateDTO> getLatestLocation(@PathVariable Long shipmentId) {
+        LocationUpdateDTO location = locationIngestionService.getLatestLocation(shipmentId);
+        return location != null ? ResponseEntity.ok(location) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * GPS pings over STOMP. The position reaches /topic/tracking/{shipmentId}
+     * through the ingestion tick, so only errors are answered, to the sender.
+     */
     @MessageMapping("/tracking/{shipmentId}")
-    @SendTo("/topic/tracking/{shipmentId}")
+    @SendToUser(value = "/queue/errors", broadcast = false)
     public Map<String, Object> updateLocation(@DestinationVariable Long shipmentId,
                                              Map<String, Object> locationData) {
         try {
-            Double latitude = ((Number) locationData.get("latitude")).doubleValue();
-            Double longitude = ((Number) locationData.get("longitude")).doubleValue();
+            double latitude = ((Number) locationData.get("latitude")).doubleValue();
+            double longitude = ((Number) locationData.get("longitude")).doubleValue();
             String description = (String) locationData.get("description");
-            
-            trackingService.updateShipmentLocation(shipmentId, latitude, longitude, description);
-            trackingService.broadcastLocationUpdate(shipmentId, latitude, longitude);
-            
-            return Map.of(
-                "success", true,
-                "shipmentId", shipmentId,
-                "latitude", latitude,
-                "longitude", longitude
-            );
+
+            locationIngestionService.record(shipmentId, latitude, longitude, description);
+            return null;
         } catch (Exception e) {
-            return Map.of("success", false, "error", e.getMessage());
+            return Map.of("success", false, "shipmentId", shipmentId, "error", String.valueOf(e.getMessage()));
         }
     }
 
+    /**
+     * Snapshot for a new subscriber of /topic/tracking/{shipmentId}: subscribe to
+     * the topic first, then to /app/tracking/{shipmentId}, and apply deltas newer
+     * than the snapshot's version.
+     */
+    @SubscribeMapping("/tracking/{shipmentId}")
+    public TrackingEventDTO subscribeTracking(@DestinationVariable Long shipmentId) {
+        return trackingStreamService.getSnapshot(shipmentId);
+    }
+
     @MessageMapping("/location/update")
     @SendTo("/topic/location")
     public Map<String, Object> broadcastLocation(Map<String, Object> locationData) {
@@ -36,4 +36,7 @@ public class AdminCreateUserDTO {
     private String vehicleNumber;
     private String warehouseName;
     private Integer totalCapacity;
+    // Tọa độ kho (tùy chọn), dùng để chọn kho gần người gửi nhất
+    private Double warehouseLatitude;
+    private Double warehouseLongitude;
 }
\ No newline at end of file
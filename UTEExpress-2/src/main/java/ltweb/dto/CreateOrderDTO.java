@@ -59,4 +59,9 @@ public class CreateOrderDTO {
 
     @NotNull(message = "Kho đích không được để trống")
     private Long destinationWarehouseId;
+
+    // Tọa độ người gửi (tùy chọn, từ bản đồ chọn vị trí)
+    private Double senderLatitude;
+
+    private Double senderLongitude;
 }
\ No newline at end of file
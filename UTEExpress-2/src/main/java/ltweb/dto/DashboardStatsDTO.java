@@ -0,0 +1,32 @@
+package ltweb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardStatsDTO {
+
+    private long totalOrders;
+
+    private long pendingOrders;
+
+    private long inProgressOrders;
+
+    private long completedOrders;
+
+    // THAT_BAI and HUY
+    private long failedOrders;
+
+    // Shipment fees of completed orders
+    private BigDecimal totalRevenue;
+
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,25 @@
+package ltweb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LocationUpdateDTO {
+
+    private Long shipmentId;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    private String description;
+
+    private LocalDateTime createdAt;
+}
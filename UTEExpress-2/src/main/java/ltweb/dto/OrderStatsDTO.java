@@ -0,0 +1,32 @@
+package ltweb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Map;
+
+/** Order counts and revenue over a date range, read from the report rollups. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatsDTO {
+
+    private long totalOrders;
+
+    private long completedOrders;
+
+    // Shipment fees of completed orders
+    private BigDecimal totalRevenue;
+
+    private Map<String, Long> ordersByStatus;
+
+    private Map<String, Long> ordersByServiceType;
+
+    // Completed-order revenue per month, oldest first
+    private Map<YearMonth, BigDecimal> revenueByMonth;
+}
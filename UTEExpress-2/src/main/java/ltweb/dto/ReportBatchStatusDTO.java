@@ -0,0 +1,50 @@
+package ltweb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportBatchStatusDTO {
+
+    private String jobId;
+
+    private List<String> reportTypes;
+
+    // First and last period covered, as period start dates
+    private LocalDate firstPeriod;
+
+    private LocalDate lastPeriod;
+
+    private int periods;
+
+    private int totalWarehouses;
+
+    private int completedWarehouses;
+
+    private int failedWarehouses;
+
+    private int reportsGenerated;
+
+    // Already stored, left alone by the day-close run
+    private int reportsSkipped;
+
+    private boolean finished;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private long elapsedMillis;
+
+    // "warehouse {id}: message", capped
+    private List<String> errors;
+}
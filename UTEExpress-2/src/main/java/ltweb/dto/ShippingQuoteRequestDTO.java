@@ -0,0 +1,24 @@
+package ltweb.dto;
+
+import ltweb.entity.ServiceType;
+import lombok.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Batch quote request in columnar form: element i of each array describes
+ * one parcel.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShippingQuoteRequestDTO {
+    @NotNull
+    private double[] distances;
+
+    @NotNull
+    private double[] weights;
+
+    @NotNull
+    private ServiceType[] serviceTypes;
+}
@@ -0,0 +1,14 @@
+package ltweb.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShippingQuoteResponseDTO {
+    private int count;
+    // Phí vận chuyển (VND), cùng thứ tự với request
+    private long[] fees;
+    private int[] estimatedDeliveryDays;
+}
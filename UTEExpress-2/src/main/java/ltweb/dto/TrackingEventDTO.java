@@ -0,0 +1,46 @@
+package ltweb.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Message on /topic/tracking/{shipmentId}. A snapshot carries the whole
+ * current state; a delta carries only the fields that changed. Versions
+ * increase by one per delta within an epoch, so a client that sees a gap
+ * re-subscribes to /app/tracking/{shipmentId} for a fresh snapshot. A new
+ * epoch means the versions started over.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TrackingEventDTO {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String DELTA = "delta";
+
+    private String type;
+
+    // Changes whenever a stream restarts, and differs between nodes
+    private String epoch;
+
+    private long version;
+
+    // Snapshots only; deltas are addressed by their destination
+    private Long shipmentId;
+
+    private Double lat;
+
+    private Double lng;
+
+    // Epoch milliseconds of the newest position or milestone
+    private Long at;
+
+    private String status;
+
+    private String note;
+}
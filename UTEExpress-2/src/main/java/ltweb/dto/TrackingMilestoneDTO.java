@@ -0,0 +1,25 @@
+package ltweb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One tracking row to record in bulk, with what is needed to notify the customer. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrackingMilestoneDTO {
+
+    private Long shipmentId;
+
+    private Long orderId;
+
+    private String orderCode;
+
+    // User id of the customer's account; null when there is nobody to notify
+    private Long customerUserId;
+
+    private String description;
+}
@@ -0,0 +1,33 @@
+package ltweb.dto;
+
+import ltweb.entity.Tracking;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrackingTrailDTO {
+
+    private Long shipmentId;
+
+    // Milestone events (pickup, hand-over, delivery...), newest first
+    private List<Tracking> milestones;
+
+    private int pointCount;
+
+    // GPS trail as parallel arrays, oldest first; timestamps in epoch milliseconds
+    private double[] latitudes;
+
+    private double[] longitudes;
+
+    private long[] timestamps;
+
+    // Description sent with each point, null where there was none
+    private String[] descriptions;
+}
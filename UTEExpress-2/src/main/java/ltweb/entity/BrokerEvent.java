@@ -0,0 +1,39 @@
+package ltweb.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A broker message replicated between application nodes in CLUSTER broker
+ * mode. Rows are short-lived: every node polls for rows it did not write and
+ * old rows are purged.
+ */
+@Entity
+@Table(name = "broker_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BrokerEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "origin_node", nullable = false, length = 64)
+    private String originNode;
+
+    @Column(nullable = false, length = 512)
+    private String destination;
+
+    @Column(name = "content_type", length = 128)
+    private String contentType;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "VARBINARY(MAX)")
+    private byte[] payload;
+
+    // Database time (UTC), so nodes with skewed clocks agree on ordering windows
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,35 @@
+package ltweb.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Total remaining stock of a warehouse as of {@code snapshotAt}, counting
+ * receipts dated up to and including that instant. Taken daily by
+ * {@link ltweb.service.InventorySnapshotService}.
+ */
+@Entity
+@Table(name = "inventory_snapshots",
+        indexes = @Index(name = "ux_inventory_snapshot", columnList = "warehouse_id, snapshot_at", unique = true))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventorySnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
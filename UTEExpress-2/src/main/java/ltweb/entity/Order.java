@@ -5,12 +5,16 @@ import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import ltweb.event.OrderChangeListener;
+import ltweb.event.OrderChangedEvent;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "ix_orders_created_at", columnList = "created_at"))
+@EntityListeners(OrderChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -97,6 +101,13 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // State as loaded, so report rollups can move the order out of its old bucket
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private OrderChangedEvent.State loadedState;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
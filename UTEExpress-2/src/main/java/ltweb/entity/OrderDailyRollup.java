@@ -0,0 +1,41 @@
+package ltweb.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One day of orders (by creation date) with a given status and service type.
+ * Recomputed from {@code orders} for the days touched by each
+ * {@link ltweb.event.OrderChangedEvent} by {@link ltweb.service.OrderAnalyticsService}.
+ */
+@Entity
+@Table(name = "order_daily_rollups",
+        indexes = @Index(name = "ux_order_daily_rollup", columnList = "period_start, status, service_type", unique = true))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Creation date of the orders counted here
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    // NONE for orders without a service type
+    @Column(name = "service_type", nullable = false, length = 20)
+    private String serviceType;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal revenue;
+}
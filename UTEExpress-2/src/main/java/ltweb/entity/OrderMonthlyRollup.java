@@ -0,0 +1,40 @@
+package ltweb.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Same as {@link OrderDailyRollup} for a calendar month, so long report
+ * ranges read one row per month instead of one per day.
+ */
+@Entity
+@Table(name = "order_monthly_rollups",
+        indexes = @Index(name = "ux_order_monthly_rollup", columnList = "period_start, status, service_type", unique = true))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderMonthlyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // First day of the month
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    // NONE for orders without a service type
+    @Column(name = "service_type", nullable = false, length = 20)
+    private String serviceType;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal revenue;
+}
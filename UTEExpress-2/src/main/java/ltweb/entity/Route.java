@@ -2,10 +2,12 @@ package ltweb.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ltweb.event.RouteChangeListener;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "routes")
+@EntityListeners(RouteChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
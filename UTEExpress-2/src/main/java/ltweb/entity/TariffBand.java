@@ -0,0 +1,62 @@
+package ltweb.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ltweb.event.TariffChangeListener;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One band of a shipping tariff. Within a service type and dimension, the band
+ * whose lower bound is the greatest not exceeding the quantity applies, and it
+ * charges {@code baseFee + unitPrice * (quantity - lowerBound)}.
+ */
+@Entity
+@Table(name = "tariff_bands")
+@EntityListeners(TariffChangeListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TariffBand {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "service_type", nullable = false)
+	@Enumerated(EnumType.STRING)
+	private ServiceType serviceType;
+
+	@Column(nullable = false)
+	@Enumerated(EnumType.STRING)
+	private TariffDimension dimension;
+
+	// Kilometres for DISTANCE bands, kilograms for WEIGHT bands
+	@Column(name = "lower_bound", nullable = false)
+	private Double lowerBound;
+
+	@Column(name = "base_fee", nullable = false, precision = 15, scale = 2)
+	private BigDecimal baseFee;
+
+	@Column(name = "unit_price", nullable = false, precision = 15, scale = 3)
+	private BigDecimal unitPrice;
+
+	@Column(name = "is_active")
+	private Boolean isActive;
+
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
+
+	@PrePersist
+	protected void onCreate() {
+		updatedAt = LocalDateTime.now();
+		if (isActive == null) {
+			isActive = true;
+		}
+	}
+
+	@PreUpdate
+	protected void onUpdate() {
+		updatedAt = LocalDateTime.now();
+	}
+}
@@ -0,0 +1,5 @@
+package ltweb.entity;
+
+public enum TariffDimension {
+    DISTANCE, WEIGHT
+}
@@ -0,0 +1,53 @@
+package ltweb.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A run of GPS points for one shipment, encoded with {@link ltweb.util.TrailCodec}.
+ * New points are appended to the end of the newest chunk's blob in place until
+ * it is full. The last point is kept in columns so an append neither reads nor
+ * decodes the blob.
+ */
+@Entity
+@Table(name = "tracking_trail_chunks",
+        indexes = @Index(name = "ux_trail_chunk_shipment_seq", columnList = "shipment_id, chunk_sequence", unique = true))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrackingTrailChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain id rather than @ManyToOne: reading a trail must not load the shipment graph
+    @Column(name = "shipment_id", nullable = false)
+    private Long shipmentId;
+
+    @Column(name = "chunk_sequence", nullable = false)
+    private Integer chunkSequence;
+
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount;
+
+    @Column(name = "first_recorded_at", nullable = false)
+    private LocalDateTime firstRecordedAt;
+
+    @Column(name = "last_recorded_at", nullable = false)
+    private LocalDateTime lastRecordedAt;
+
+    @Column(name = "last_latitude_e6", nullable = false)
+    private Integer lastLatitudeE6;
+
+    @Column(name = "last_longitude_e6", nullable = false)
+    private Integer lastLongitudeE6;
+
+    @Column(name = "last_epoch_second", nullable = false)
+    private Long lastEpochSecond;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "VARBINARY(MAX)")
+    private byte[] data;
+}
@@ -0,0 +1,33 @@
+package ltweb.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Description sent with a GPS point of a trail, addressed by the point's
+ * position in its {@link TrackingTrailChunk}. Points without one have no row.
+ */
+@Entity
+@Table(name = "tracking_trail_notes",
+        indexes = @Index(name = "ix_trail_note_shipment", columnList = "shipment_id, chunk_sequence, point_index"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrackingTrailNote {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "shipment_id", nullable = false)
+    private Long shipmentId;
+
+    @Column(name = "chunk_sequence", nullable = false)
+    private Integer chunkSequence;
+
+    @Column(name = "point_index", nullable = false)
+    private Integer pointIndex;
+
+    @Column(nullable = false, columnDefinition = "NVARCHAR(MAX)")
+    private String description;
+}
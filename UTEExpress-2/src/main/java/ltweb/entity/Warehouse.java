@@ -6,8 +6,11 @@ import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import ltweb.event.WarehouseChangeListener;
+
 @Entity
 @Table(name = "warehouses")
+@EntityListeners(WarehouseChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +44,12 @@ public class Warehouse {
     @Column(name = "current_stock")
     private Integer currentStock;
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @OneToOne
     @JoinColumn(name = "user_id")
     @JsonIgnoreProperties({"warehouse", "shipper"}) 
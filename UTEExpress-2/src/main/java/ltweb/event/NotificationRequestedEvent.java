@@ -0,0 +1,23 @@
+package ltweb.event;
+
+import ltweb.entity.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification to store and push once the publishing transaction commits.
+ * Carries ids rather than entities so it can outlive the persistence context.
+ */
+@Data
+@AllArgsConstructor
+public class NotificationRequestedEvent {
+	private Long userId;
+	private String recipientType;
+	private String message;
+	private NotificationType type;
+	private Long orderId;
+	private String orderCode;
+	private LocalDateTime createdAt;
+}
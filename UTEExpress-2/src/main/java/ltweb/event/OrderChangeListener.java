@@ -0,0 +1,45 @@
+package ltweb.event;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import ltweb.entity.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link Order}. Remembers the state each order was loaded
+ * with and publishes an {@link OrderChangedEvent} when a report-relevant field
+ * (status, service type, fee) changes.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderChangeListener {
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	@PostLoad
+	public void onLoad(Order order) {
+		order.setLoadedState(OrderChangedEvent.State.of(order));
+	}
+
+	@PostPersist
+	@PostUpdate
+	public void onSave(Order order) {
+		OrderChangedEvent.State current = OrderChangedEvent.State.of(order);
+		OrderChangedEvent.State previous = order.getLoadedState();
+		if (!current.equals(previous)) {
+			eventPublisher.publishEvent(new OrderChangedEvent(order.getId(), previous, current));
+		}
+		order.setLoadedState(current);
+	}
+
+	@PostRemove
+	public void onRemove(Order order) {
+		if (order.getLoadedState() != null) {
+			eventPublisher.publishEvent(new OrderChangedEvent(order.getId(), order.getLoadedState(), null));
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package ltweb.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ltweb.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The report-relevant state of an order before and after a change; either
+ * side is null for inserts and deletes.
+ */
+@Data
+@AllArgsConstructor
+public class OrderChangedEvent {
+	private Long orderId;
+	private State previous;
+	private State current;
+
+	@Data
+	@AllArgsConstructor
+	public static class State {
+		private LocalDate createdDate;
+		private String status;
+		private String serviceType;
+		private BigDecimal shipmentFee;
+
+		public static State of(Order order) {
+			return new State(order.getCreatedAt().toLocalDate(), order.getStatus().name(),
+					order.getServiceType() != null ? order.getServiceType().name() : null, order.getShipmentFee());
+		}
+	}
+}
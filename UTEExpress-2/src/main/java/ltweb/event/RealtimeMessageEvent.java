@@ -0,0 +1,13 @@
+package ltweb.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RealtimeMessageEvent {
+	private String destination;
+	private Object payload;
+	// Set when only the newest payload under this key matters (e.g. a summary)
+	private String coalesceKey;
+}
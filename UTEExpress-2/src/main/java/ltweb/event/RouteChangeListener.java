@@ -0,0 +1,36 @@
+package ltweb.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import ltweb.entity.Route;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link Route} that republishes every insert, update and delete
+ * as a {@link RouteChangedEvent} so in-memory routing structures can refresh.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteChangeListener {
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	@PostPersist
+	@PostUpdate
+	public void onSave(Route route) {
+		publish(route, Boolean.TRUE.equals(route.getIsActive()));
+	}
+
+	@PostRemove
+	public void onRemove(Route route) {
+		publish(route, false);
+	}
+
+	private void publish(Route route, boolean active) {
+		eventPublisher.publishEvent(new RouteChangedEvent(route.getId(), route.getFromWarehouse().getId(),
+				route.getToWarehouse().getId(), active));
+	}
+}
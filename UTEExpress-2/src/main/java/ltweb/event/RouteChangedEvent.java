@@ -0,0 +1,14 @@
+package ltweb.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RouteChangedEvent {
+	private Long routeId;
+	private Long fromWarehouseId;
+	private Long toWarehouseId;
+	// false when the route was deleted or deactivated
+	private boolean active;
+}
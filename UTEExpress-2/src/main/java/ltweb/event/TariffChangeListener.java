@@ -0,0 +1,27 @@
+package ltweb.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import ltweb.entity.TariffBand;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link TariffBand} that republishes every change as a
+ * {@link TariffChangedEvent} so the compiled tariff is reloaded after commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class TariffChangeListener {
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void onChange(TariffBand band) {
+		eventPublisher.publishEvent(new TariffChangedEvent(band.getId()));
+	}
+}
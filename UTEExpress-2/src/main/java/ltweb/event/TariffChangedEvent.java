@@ -0,0 +1,10 @@
+package ltweb.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TariffChangedEvent {
+	private Long tariffBandId;
+}
@@ -0,0 +1,17 @@
+package ltweb.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class TrackingRecordedEvent {
+	private Long shipmentId;
+	private Double latitude;
+	private Double longitude;
+	private String status;
+	private String description;
+	private LocalDateTime createdAt;
+}
@@ -0,0 +1,32 @@
+package ltweb.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import ltweb.entity.Warehouse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link Warehouse}; republishes changes as
+ * {@link WarehouseChangedEvent} for the in-memory warehouse index.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarehouseChangeListener {
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	@PostPersist
+	@PostUpdate
+	public void onSave(Warehouse warehouse) {
+		eventPublisher.publishEvent(new WarehouseChangedEvent(warehouse.getId(), warehouse.getLatitude(),
+				warehouse.getLongitude(), warehouse.getAddress(), false));
+	}
+
+	@PostRemove
+	public void onRemove(Warehouse warehouse) {
+		eventPublisher.publishEvent(new WarehouseChangedEvent(warehouse.getId(), null, null, null, true));
+	}
+}
@@ -0,0 +1,14 @@
+package ltweb.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class WarehouseChangedEvent {
+	private Long warehouseId;
+	private Double latitude;
+	private Double longitude;
+	private String address;
+	private boolean removed;
+}
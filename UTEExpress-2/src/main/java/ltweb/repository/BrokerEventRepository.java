@@ -0,0 +1,35 @@
+package ltweb.repository;
+
+import ltweb.entity.BrokerEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface BrokerEventRepository extends JpaRepository<BrokerEvent, Long> {
+
+    /**
+     * Events written by other nodes after {@code afterId}. Rows younger than
+     * {@code settleMillis} are left for the next poll so that an insert that
+     * commits late is not skipped by the id cursor.
+     */
+    @Query(value = "SELECT TOP (:limit) * FROM broker_events WHERE id > :afterId AND origin_node <> :node "
+            + "AND created_at <= DATEADD(millisecond, -:settleMillis, SYSUTCDATETIME()) ORDER BY id",
+            nativeQuery = true)
+    List<BrokerEvent> findReadyAfter(@Param("afterId") long afterId, @Param("node") String node,
+                                     @Param("settleMillis") int settleMillis, @Param("limit") int limit);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM BrokerEvent e")
+    long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM broker_events WHERE created_at < DATEADD(second, -:retentionSeconds, SYSUTCDATETIME())",
+            nativeQuery = true)
+    int deleteOlderThan(@Param("retentionSeconds") int retentionSeconds);
+}
@@ -0,0 +1,40 @@
+package ltweb.repository;
+
+import ltweb.entity.Order;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Aggregates for the admin dashboard, computed by the database in a single pass. */
+@Repository
+public interface DashboardStatsRepository extends org.springframework.data.repository.Repository<Order, Long> {
+
+    /** Order counts by dashboard state and completed revenue; null bounds are open. */
+    @Query("SELECT COUNT(o) AS totalOrders, "
+            + "COALESCE(SUM(CASE WHEN o.status = ltweb.entity.OrderStatus.CHO_GIAO THEN 1 ELSE 0 END), 0) AS pendingOrders, "
+            + "COALESCE(SUM(CASE WHEN o.status = ltweb.entity.OrderStatus.DANG_GIAO THEN 1 ELSE 0 END), 0) AS inProgressOrders, "
+            + "COALESCE(SUM(CASE WHEN o.status = ltweb.entity.OrderStatus.HOAN_THANH THEN 1 ELSE 0 END), 0) AS completedOrders, "
+            + "COALESCE(SUM(CASE WHEN o.status IN (ltweb.entity.OrderStatus.THAT_BAI, ltweb.entity.OrderStatus.HUY) "
+            + "THEN 1 ELSE 0 END), 0) AS failedOrders, "
+            + "COALESCE(SUM(CASE WHEN o.status = ltweb.entity.OrderStatus.HOAN_THANH THEN o.shipmentFee END), 0) AS totalRevenue "
+            + "FROM Order o "
+            + "WHERE (:from IS NULL OR o.createdAt >= :from) AND (:to IS NULL OR o.createdAt < :to)")
+    OrderTotals getOrderTotals(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface OrderTotals {
+        long getTotalOrders();
+
+        long getPendingOrders();
+
+        long getInProgressOrders();
+
+        long getCompletedOrders();
+
+        long getFailedOrders();
+
+        BigDecimal getTotalRevenue();
+    }
+}
@@ -2,12 +2,25 @@ package ltweb.repository;
 
 import ltweb.entity.InboundReceiptDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface InboundReceiptDetailRepository extends JpaRepository<InboundReceiptDetail, Long> {
     
     List<InboundReceiptDetail> findByInboundReceiptId(Long inboundReceiptId);
+    
+    @Query("SELECT COALESCE(SUM(d.quantity), 0) FROM InboundReceiptDetail d WHERE d.inboundReceipt.warehouse.id = :warehouseId AND d.inboundReceipt.receivedDate > :date")
+    Long sumQuantityByWarehouseIdAndReceivedDateAfter(@Param("warehouseId") Long warehouseId,
+                                                      @Param("date") LocalDateTime date);
+    
+    // Receipts dated after {@code after}, up to and including {@code upTo}
+    @Query("SELECT COALESCE(SUM(d.quantity), 0) FROM InboundReceiptDetail d WHERE d.inboundReceipt.warehouse.id = :warehouseId AND d.inboundReceipt.receivedDate > :after AND d.inboundReceipt.receivedDate <= :upTo")
+    Long sumQuantityByWarehouseIdAndReceivedDateInterval(@Param("warehouseId") Long warehouseId,
+                                                         @Param("after") LocalDateTime after,
+                                                         @Param("upTo") LocalDateTime upTo);
 }
\ No newline at end of file
@@ -14,6 +14,10 @@ public interface InboundReceiptRepository extends JpaRepository<InboundReceipt,
     
     List<InboundReceipt> findByWarehouseId(Long warehouseId);
     
+    // Receipts dated after {@code after}, up to and including {@code upTo}
+    long countByWarehouseIdAndReceivedDateGreaterThanAndReceivedDateLessThanEqual(
+            Long warehouseId, LocalDateTime after, LocalDateTime upTo);
+    
     @Query("SELECT ir FROM InboundReceipt ir WHERE ir.warehouse.id = :warehouseId AND ir.receivedDate BETWEEN :startDate AND :endDate")
     List<InboundReceipt> findByWarehouseIdAndDateRange(@Param("warehouseId") Long warehouseId,
                                                        @Param("startDate") LocalDateTime startDate,
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,4 +27,17 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     
     @Query("SELECT SUM(i.remainingQuantity) FROM Inventory i WHERE i.warehouse.id = :warehouseId")
     Integer getTotalRemainingQuantityByWarehouseId(@Param("warehouseId") Long warehouseId);
+    
+    @Query("SELECT i.id AS id, i.packageItem.id AS packageId, i.remainingQuantity AS remainingQuantity FROM Inventory i "
+            + "WHERE i.warehouse.id = :warehouseId AND i.packageItem.id IN :packageIds")
+    List<InventoryKey> findKeysByWarehouseIdAndPackageIdIn(@Param("warehouseId") Long warehouseId,
+                                                           @Param("packageIds") Collection<Long> packageIds);
+    
+    interface InventoryKey {
+        Long getId();
+        
+        Long getPackageId();
+        
+        Integer getRemainingQuantity();
+    }
 }
\ No newline at end of file
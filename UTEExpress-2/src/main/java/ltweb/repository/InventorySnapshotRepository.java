@@ -0,0 +1,18 @@
+package ltweb.repository;
+
+import ltweb.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    Optional<InventorySnapshot> findFirstByWarehouseIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(
+            Long warehouseId, LocalDateTime at);
+
+    Optional<InventorySnapshot> findFirstByWarehouseIdAndSnapshotAtGreaterThanOrderBySnapshotAtAsc(
+            Long warehouseId, LocalDateTime at);
+}
@@ -0,0 +1,14 @@
+package ltweb.repository;
+
+import ltweb.entity.OrderDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OrderDailyRollupRepository extends JpaRepository<OrderDailyRollup, Long> {
+
+    List<OrderDailyRollup> findByPeriodStartBetween(LocalDate from, LocalDate to);
+}
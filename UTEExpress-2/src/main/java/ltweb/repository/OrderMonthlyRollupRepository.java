@@ -0,0 +1,14 @@
+package ltweb.repository;
+
+import ltweb.entity.OrderMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OrderMonthlyRollupRepository extends JpaRepository<OrderMonthlyRollup, Long> {
+
+    List<OrderMonthlyRollup> findByPeriodStartBetween(LocalDate from, LocalDate to);
+}
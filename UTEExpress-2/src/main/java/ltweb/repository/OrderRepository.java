@@ -2,6 +2,7 @@ package ltweb.repository;
 
 import ltweb.entity.Order;
 import ltweb.entity.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -30,6 +31,8 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
 	List<Order> findByCustomerIdOrderByCreatedAtDesc(Long customerId);
 
+	List<Order> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
 	@Query("SELECT o FROM Order o WHERE o.warehouse.id = :warehouseId AND o.createdAt BETWEEN :startDate AND :endDate")
 	List<Order> findByWarehouseIdAndDateRange(@Param("warehouseId") Long warehouseId,
 			@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
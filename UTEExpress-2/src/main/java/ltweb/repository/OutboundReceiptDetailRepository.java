@@ -2,12 +2,25 @@ package ltweb.repository;
 
 import ltweb.entity.OutboundReceiptDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface OutboundReceiptDetailRepository extends JpaRepository<OutboundReceiptDetail, Long> {
     
     List<OutboundReceiptDetail> findByOutboundReceiptId(Long outboundReceiptId);
+    
+    @Query("SELECT COALESCE(SUM(d.quantity), 0) FROM OutboundReceiptDetail d WHERE d.outboundReceipt.warehouse.id = :warehouseId AND d.outboundReceipt.issuedDate > :date")
+    Long sumQuantityByWarehouseIdAndIssuedDateAfter(@Param("warehouseId") Long warehouseId,
+                                                    @Param("date") LocalDateTime date);
+    
+    // Receipts dated after {@code after}, up to and including {@code upTo}
+    @Query("SELECT COALESCE(SUM(d.quantity), 0) FROM OutboundReceiptDetail d WHERE d.outboundReceipt.warehouse.id = :warehouseId AND d.outboundReceipt.issuedDate > :after AND d.outboundReceipt.issuedDate <= :upTo")
+    Long sumQuantityByWarehouseIdAndIssuedDateInterval(@Param("warehouseId") Long warehouseId,
+                                                       @Param("after") LocalDateTime after,
+                                                       @Param("upTo") LocalDateTime upTo);
 }
\ No newline at end of file
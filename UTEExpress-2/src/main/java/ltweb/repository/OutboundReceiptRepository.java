@@ -14,6 +14,10 @@ public interface OutboundReceiptRepository extends JpaRepository<OutboundReceipt
     
     List<OutboundReceipt> findByWarehouseId(Long warehouseId);
     
+    // Receipts dated after {@code after}, up to and including {@code upTo}
+    long countByWarehouseIdAndIssuedDateGreaterThanAndIssuedDateLessThanEqual(
+            Long warehouseId, LocalDateTime after, LocalDateTime upTo);
+    
     @Query("SELECT or FROM OutboundReceipt or WHERE or.warehouse.id = :warehouseId AND or.issuedDate BETWEEN :startDate AND :endDate")
     List<OutboundReceipt> findByWarehouseIdAndDateRange(@Param("warehouseId") Long warehouseId,
                                                         @Param("startDate") LocalDateTime startDate,
@@ -3,8 +3,11 @@ package ltweb.repository;
 import ltweb.entity.Package;
 import ltweb.entity.PackageStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +21,25 @@ public interface PackageRepository extends JpaRepository<Package, Long> {
     List<Package> findByStatus(PackageStatus status);
     
     boolean existsByPackageCode(String packageCode);
+    
+    /** Order, customer and shipment of each package, without loading the entities. */
+    @Query("SELECT p.id AS packageId, o.id AS orderId, o.orderCode AS orderCode, "
+            + "o.destinationWarehouse.id AS destinationWarehouseId, c.user.id AS customerUserId, s.id AS shipmentId "
+            + "FROM Package p JOIN p.order o LEFT JOIN o.customer c LEFT JOIN Shipment s ON s.order = o "
+            + "WHERE p.id IN :packageIds")
+    List<PackageRouting> findRoutingByIdIn(@Param("packageIds") Collection<Long> packageIds);
+    
+    interface PackageRouting {
+        Long getPackageId();
+        
+        Long getOrderId();
+        
+        String getOrderCode();
+        
+        Long getDestinationWarehouseId();
+        
+        Long getCustomerUserId();
+        
+        Long getShipmentId();
+    }
 }
\ No newline at end of file
@@ -20,6 +20,8 @@ public interface RouteRepository extends JpaRepository<Route, Long> {
 
 	List<Route> findByPreferredShipperId(Long shipperId);
 
+	List<Route> findByIsActiveTrue();
+
 	@Query("SELECT r FROM Route r WHERE r.fromWarehouse.id = :fromId AND r.toWarehouse.id = :toId AND r.isActive = true")
 	Optional<Route> findActiveRoute(@Param("fromId") Long fromWarehouseId, @Param("toId") Long toWarehouseId);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ltweb.repository;
+
+import ltweb.entity.TariffBand;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TariffBandRepository extends JpaRepository<TariffBand, Long> {
+
+	List<TariffBand> findByIsActiveTrue();
+}
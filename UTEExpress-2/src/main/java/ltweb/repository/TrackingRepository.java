@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TrackingRepository extends JpaRepository<Tracking, Long> {
@@ -14,4 +15,6 @@ public interface TrackingRepository extends JpaRepository<Tracking, Long> {
     List<Tracking> findByShipmentIdOrderByCreatedAtDesc(Long shipmentId);
     
     List<Tracking> findByShipmentIdOrderByCreatedAtAsc(Long shipmentId);
+
+    Optional<Tracking> findFirstByShipmentIdOrderByCreatedAtDesc(Long shipmentId);
 }
\ No newline at end of file
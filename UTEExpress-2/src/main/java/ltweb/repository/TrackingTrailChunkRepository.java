@@ -0,0 +1,46 @@
+package ltweb.repository;
+
+import ltweb.entity.TrackingTrailChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TrackingTrailChunkRepository extends JpaRepository<TrackingTrailChunk, Long> {
+
+    List<TrackingTrailChunk> findByShipmentIdOrderByChunkSequenceAsc(Long shipmentId);
+
+    /** Newest chunk of a shipment without its data blob. */
+    Optional<ChunkTail> findFirstByShipmentIdOrderByChunkSequenceDesc(Long shipmentId);
+
+    /** Appends encoded points to the end of a chunk's blob in place, without reading it. */
+    @Modifying
+    @Query(value = "UPDATE tracking_trail_chunks SET data.WRITE(:data, NULL, NULL), "
+            + "point_count = point_count + :points, last_recorded_at = :lastRecordedAt, "
+            + "last_latitude_e6 = :lastLatitudeE6, last_longitude_e6 = :lastLongitudeE6, "
+            + "last_epoch_second = :lastEpochSecond WHERE id = :id", nativeQuery = true)
+    int appendPoints(@Param("id") Long id, @Param("data") byte[] data, @Param("points") int points,
+                     @Param("lastRecordedAt") LocalDateTime lastRecordedAt,
+                     @Param("lastLatitudeE6") int lastLatitudeE6, @Param("lastLongitudeE6") int lastLongitudeE6,
+                     @Param("lastEpochSecond") long lastEpochSecond);
+
+    interface ChunkTail {
+        Long getId();
+
+        Integer getChunkSequence();
+
+        Integer getPointCount();
+
+        Integer getLastLatitudeE6();
+
+        Integer getLastLongitudeE6();
+
+        Long getLastEpochSecond();
+    }
+}
@@ -0,0 +1,13 @@
+package ltweb.repository;
+
+import ltweb.entity.TrackingTrailNote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TrackingTrailNoteRepository extends JpaRepository<TrackingTrailNote, Long> {
+
+    List<TrackingTrailNote> findByShipmentId(Long shipmentId);
+}
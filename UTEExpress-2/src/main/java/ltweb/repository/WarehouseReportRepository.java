@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WarehouseReportRepository extends JpaRepository<WarehouseReport, Long> {
@@ -19,6 +20,15 @@ public interface WarehouseReportRepository extends JpaRepository<WarehouseReport
     
     List<WarehouseReport> findByWarehouseIdOrderByCreatedAtDesc(Long warehouseId);
     
+    List<WarehouseReport> findByWarehouseIdAndReportTypeAndStartDateBetweenOrderByStartDateAscCreatedAtDesc(
+            Long warehouseId, ReportType reportType, LocalDateTime from, LocalDateTime to);
+    
+    Optional<WarehouseReport> findFirstByWarehouseIdAndReportTypeAndEndDateBetweenOrderByCreatedAtDesc(
+            Long warehouseId, ReportType reportType, LocalDateTime from, LocalDateTime to);
+    
+    Optional<WarehouseReport> findFirstByWarehouseIdAndReportTypeAndStartDateOrderByCreatedAtDesc(
+            Long warehouseId, ReportType reportType, LocalDateTime startDate);
+    
     @Query("SELECT wr FROM WarehouseReport wr WHERE wr.warehouse.id = :warehouseId AND wr.startDate >= :startDate AND wr.endDate <= :endDate")
     List<WarehouseReport> findByWarehouseIdAndDateRange(@Param("warehouseId") Long warehouseId, 
                                                          @Param("startDate") LocalDateTime startDate, 
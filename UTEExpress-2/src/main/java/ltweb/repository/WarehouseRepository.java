@@ -2,8 +2,10 @@ package ltweb.repository;
 
 import ltweb.entity.Warehouse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +16,9 @@ public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
     Optional<Warehouse> findByUserId(Long userId);
     
     boolean existsByCode(String code);
+
+    Optional<Warehouse> findFirstByOrderByIdAsc();
+
+    @Query("SELECT w.id FROM Warehouse w ORDER BY w.id")
+    List<Long> findAllIds();
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package ltweb.service;
 import ltweb.dto.*;
 import ltweb.entity.*;
 import ltweb.repository.*;
+import ltweb.util.GeoUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -177,6 +178,9 @@ public class AdminService {
     }
     
     private void createWarehouseProfile(User user, AdminCreateUserDTO dto) {
+        if (!GeoUtils.isValidCoordinate(dto.getWarehouseLatitude(), dto.getWarehouseLongitude())) {
+            throw new RuntimeException("Tọa độ kho không hợp lệ");
+        }
         Warehouse warehouse = Warehouse.builder()
             .code("WH" + System.currentTimeMillis())
             .name(dto.getWarehouseName())
@@ -185,6 +189,8 @@ public class AdminService {
             .email(user.getEmail())
             .manager(user.getFullName())
             .totalCapacity(dto.getTotalCapacity() != null ? dto.getTotalCapacity() : 10000)
+            .latitude(dto.getWarehouseLatitude())
+            .longitude(dto.getWarehouseLongitude())
             .user(user)
             .build();
         warehouseRepository.save(warehouse);
@@ -3,7 +3,6 @@ package ltweb.service;
 import ltweb.entity.*;
 import ltweb.repository.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -21,7 +20,7 @@ public class ChatService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final CloudinaryService cloudinaryService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketRelay webSocketRelay;
 
     @Transactional
     public ChatConversation getOrCreateConversation(Long customerId) {
@@ -79,10 +78,12 @@ public class ChatService {
         
         conversationRepository.save(conversation);
 
-        messagingTemplate.convertAndSend("/topic/chat/" + conversationId, chatMessage);
+        webSocketRelay.send("/topic/chat/" + conversationId, chatMessage);
 
         if (senderType == ChatMessage.SenderType.CUSTOMER) {
-            messagingTemplate.convertAndSend("/topic/support/new-message", conversation);
+            // Only the newest state of each conversation matters to the support inbox
+            webSocketRelay.sendLatest("/topic/support/new-message", "support-conversation-" + conversationId,
+                    conversation);
         }
 
         return chatMessage;
@@ -0,0 +1,200 @@
+package ltweb.service;
+
+import jakarta.annotation.PostConstruct;
+import ltweb.entity.BrokerEvent;
+import ltweb.repository.BrokerEventRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded fan-out between application nodes for the CLUSTER broker mode.
+ * Every message the local simple broker receives is also written to
+ * {@code broker_events}; each node polls the rows written by the other nodes
+ * and hands them to its own broker, which delivers them to its own
+ * subscribers. The producing node never reads its own rows back and the id
+ * cursor hands every foreign row to the broker exactly once, so no client
+ * receives a message twice.
+ * <p>
+ * Messages to {@code /user/{name}/...} are replicated before they are resolved,
+ * whether or not this node holds a session of that user: every node resolves
+ * them against its own sessions, so a user connected to several nodes gets the
+ * message on each of them.
+ */
+@Service
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "CLUSTER")
+public class ClusterBrokerBridge implements ChannelInterceptor {
+
+    private static final String REPLAYED_HEADER = "clusterReplayed";
+    private static final String INSERT_SQL = "INSERT INTO broker_events "
+            + "(origin_node, destination, content_type, payload, created_at) "
+            + "VALUES (?, ?, ?, ?, SYSUTCDATETIME())";
+
+    private final BrokerEventRepository brokerEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageChannel brokerChannel;
+    private final ClusterLockService clusterLockService;
+
+    @Value("${app.websocket.cluster.node-id:}")
+    private String nodeId;
+
+    @Value("${app.websocket.cluster.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.websocket.cluster.batch-size:500}")
+    private int batchSize;
+
+    // Rows younger than this are read on a later poll, so late commits are not skipped
+    @Value("${app.websocket.cluster.settle-ms:250}")
+    private int settleMillis;
+
+    @Value("${app.websocket.cluster.retention-seconds:300}")
+    private int retentionSeconds;
+
+    private BlockingQueue<BrokerEvent> outbound;
+    private volatile long lastSeenId;
+    // Messages not replicated because the outbound queue was full, reported on the next exchange
+    private final AtomicLong dropped = new AtomicLong();
+
+    public ClusterBrokerBridge(BrokerEventRepository brokerEventRepository, JdbcTemplate jdbcTemplate,
+                               @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+                               ClusterLockService clusterLockService) {
+        this.brokerEventRepository = brokerEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.brokerChannel = brokerChannel;
+        this.clusterLockService = clusterLockService;
+    }
+
+    @PostConstruct
+    void start() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+        outbound = new ArrayBlockingQueue<>(queueCapacity);
+        // Only messages produced after this node joined are of interest
+        lastSeenId = brokerEventRepository.findMaxId();
+    }
+
+    /** Copies every broker-bound message produced on this node into the outbound queue. */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE
+                || accessor.getHeader(REPLAYED_HEADER) != null
+                || accessor.getDestination() == null
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+        if (accessor.getFirstNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION) != null) {
+            // Resolved to a session on this node; the unresolved /user message was replicated already
+            return message;
+        }
+
+        BrokerEvent event = BrokerEvent.builder()
+                .originNode(nodeId)
+                .destination(accessor.getDestination())
+                .contentType(accessor.getContentType() != null ? accessor.getContentType().toString() : null)
+                .payload(payload)
+                .build();
+        if (!outbound.offer(event)) {
+            // Local subscribers still get it, only the other nodes miss it
+            dropped.incrementAndGet();
+        }
+        return message;
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.cluster.poll-interval-ms:200}")
+    public void exchange() {
+        long droppedSinceLast = dropped.getAndSet(0);
+        if (droppedSinceLast > 0) {
+            System.err.println("❌ Broker cluster queue full: " + droppedSinceLast + " messages not replicated");
+        }
+        try {
+            publishPending();
+            deliverRemote();
+        } catch (RuntimeException e) {
+            System.err.println("❌ Broker cluster exchange failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.cluster.purge-interval-ms:60000}")
+    public void purge() {
+        try {
+            // The table is shared, so one node purging per interval is enough
+            clusterLockService.runExclusively("broker-events.purge",
+                    () -> brokerEventRepository.deleteOlderThan(retentionSeconds));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Broker event purge failed: " + e.getMessage());
+        }
+    }
+
+    private void publishPending() {
+        List<BrokerEvent> batch = new ArrayList<>(batchSize);
+        while (outbound.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        BrokerEvent event = batch.get(i);
+                        ps.setString(1, event.getOriginNode());
+                        ps.setString(2, event.getDestination());
+                        ps.setString(3, event.getContentType());
+                        ps.setBytes(4, event.getPayload());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                });
+            } catch (DataAccessException e) {
+                // Local subscribers already have these; only the other nodes miss them
+                System.err.println("❌ Broker event insert failed: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void deliverRemote() {
+        List<BrokerEvent> events;
+        do {
+            events = brokerEventRepository.findReadyAfter(lastSeenId, nodeId, settleMillis, batchSize);
+            for (BrokerEvent event : events) {
+                brokerChannel.send(toMessage(event));
+                lastSeenId = event.getId();
+            }
+        } while (events.size() == batchSize);
+    }
+
+    private static Message<byte[]> toMessage(BrokerEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(event.getDestination());
+        if (event.getContentType() != null) {
+            accessor.setContentType(MimeType.valueOf(event.getContentType()));
+        }
+        accessor.setHeader(REPLAYED_HEADER, Boolean.TRUE);
+        return MessageBuilder.createMessage(event.getPayload(), accessor.getMessageHeaders());
+    }
+}
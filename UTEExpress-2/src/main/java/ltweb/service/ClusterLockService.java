@@ -0,0 +1,67 @@
+package ltweb.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+
+/**
+ * Named locks shared by every application node, held as SQL Server
+ * application locks ({@code sp_getapplock}). A lock belongs to the
+ * transaction it was taken in and is released when that transaction ends.
+ */
+@Service
+@RequiredArgsConstructor
+public class ClusterLockService {
+
+    private static final String GET_APPLOCK_SQL = "{? = call sp_getapplock(?, ?, 'Transaction', ?)}";
+    private static final int WAIT_FOREVER = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Runs a scheduled job on one node at a time. The job runs in a new
+     * transaction that holds the lock until it returns; a node that finds the
+     * lock taken skips this run.
+     *
+     * @return whether the job ran
+     */
+    public boolean runExclusively(String name, Runnable job) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return Boolean.TRUE.equals(transaction.execute(status -> {
+            if (!tryLock(name, "Exclusive", 0)) {
+                return false;
+            }
+            job.run();
+            return true;
+        }));
+    }
+
+    /** Takes the lock for the current transaction, waiting for its holder. */
+    public void lockExclusive(String name) {
+        if (!tryLock(name, "Exclusive", WAIT_FOREVER)) {
+            throw new CannotAcquireLockException("Could not take lock " + name);
+        }
+    }
+
+    private boolean tryLock(String name, String mode, int timeoutMillis) {
+        Integer result = jdbcTemplate.execute(GET_APPLOCK_SQL, (CallableStatementCallback<Integer>) call -> {
+            call.registerOutParameter(1, Types.INTEGER);
+            call.setString(2, name);
+            call.setString(3, mode);
+            call.setInt(4, timeoutMillis);
+            call.execute();
+            return call.getInt(1);
+        });
+        // 0 and 1 are grants; -1 timed out, -2 cancelled, -3 deadlock victim
+        return result != null && result >= 0;
+    }
+}
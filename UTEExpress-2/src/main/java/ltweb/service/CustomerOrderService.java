@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -23,12 +24,14 @@ public class CustomerOrderService {
     private final CustomerRepository customerRepository;
     private final ShippingFeeService shippingFeeService;
     private final NotificationService notificationService;
+    private final WarehouseLocatorService warehouseLocatorService;
+    private final GeocodingService geocodingService;
 
     public OrderSummaryDTO calculateOrderSummary(CreateOrderDTO dto) {
         Warehouse destinationWarehouse = warehouseRepository.findById(dto.getDestinationWarehouseId())
                 .orElseThrow(() -> new RuntimeException("Kho đích không tồn tại"));
 
-        Double distance = calculateDistanceFromAddress(dto.getSenderAddress(), dto.getRecipientAddress());
+        Double distance = calculateDistance(dto);
 
         BigDecimal estimatedFee = shippingFeeService.calculateShippingFee(distance, dto.getWeight(), dto.getServiceType());
 
@@ -58,35 +61,17 @@ public class CustomerOrderService {
                 .build();
     }
 
-    private Double calculateDistanceFromAddress(String fromAddress, String toAddress) {
-        String from = fromAddress.toLowerCase();
-        String to = toAddress.toLowerCase();
-
-        if ((from.contains("hà nội") && to.contains("đà nẵng")) ||
-            (from.contains("đà nẵng") && to.contains("hà nội"))) {
-            return 764.0;
-        } else if ((from.contains("hà nội") && (to.contains("hồ chí minh") || to.contains("hcm"))) ||
-                   ((from.contains("hồ chí minh") || from.contains("hcm")) && to.contains("hà nội"))) {
-            return 1720.0;
-        } else if ((from.contains("đà nẵng") && (to.contains("hồ chí minh") || to.contains("hcm"))) ||
-                   ((from.contains("hồ chí minh") || from.contains("hcm")) && to.contains("đà nẵng"))) {
-            return 964.0;
-        }
-
-        return 100.0;
-    }
-
     @Transactional
     public Order createOrder(CreateOrderDTO dto, Long customerId) {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new RuntimeException("Khách hàng không tồn tại"));
 
-        Warehouse nearestWarehouse = findNearestWarehouse(dto.getSenderAddress());
+        Warehouse nearestWarehouse = findNearestWarehouse(dto);
 
         Warehouse destinationWarehouse = warehouseRepository.findById(dto.getDestinationWarehouseId())
                 .orElseThrow(() -> new RuntimeException("Kho đích không tồn tại"));
 
-        Double distance = calculateDistance(dto.getSenderAddress(), dto.getRecipientAddress());
+        Double distance = calculateDistance(dto);
 
         BigDecimal shippingFee = shippingFeeService.calculateShippingFee(distance, dto.getWeight(), dto.getServiceType());
 
@@ -138,47 +123,35 @@ public class CustomerOrderService {
         return order;
     }
 
-    private Warehouse findNearestWarehouse(String address) {
-        List<Warehouse> warehouses = warehouseRepository.findAll();
-
-        if (address.toLowerCase().contains("hà nội") || address.toLowerCase().contains("hanoi")) {
-            return warehouses.stream()
-                    .filter(w -> w.getCode().equals("WH-HN"))
-                    .findFirst()
-                    .orElse(warehouses.get(0));
-        } else if (address.toLowerCase().contains("đà nẵng") || address.toLowerCase().contains("danang")) {
-            return warehouses.stream()
-                    .filter(w -> w.getCode().equals("WH-DN"))
-                    .findFirst()
-                    .orElse(warehouses.get(0));
-        } else if (address.toLowerCase().contains("hồ chí minh") ||
-                   address.toLowerCase().contains("hcm") ||
-                   address.toLowerCase().contains("sài gòn")) {
-            return warehouses.stream()
-                    .filter(w -> w.getCode().equals("WH-HCM"))
-                    .findFirst()
-                    .orElse(warehouses.get(0));
+    private Warehouse findNearestWarehouse(CreateOrderDTO dto) {
+        Warehouse nearest = null;
+        if (dto.getSenderLatitude() != null && dto.getSenderLongitude() != null) {
+            nearest = warehouseLocatorService.findNearestWarehouse(dto.getSenderLatitude(), dto.getSenderLongitude());
+        } else {
+            Optional<Gazetteer.Place> sender = geocodingService.geocode(dto.getSenderAddress());
+            if (sender.isPresent()) {
+                nearest = warehouseLocatorService.findNearestWarehouse(sender.get().getLatitude(),
+                        sender.get().getLongitude());
+            }
         }
 
-        return warehouses.get(0);
+        if (nearest != null) {
+            return nearest;
+        }
+        // Địa chỉ không nhận diện được: dùng kho đầu tiên như trước
+        return warehouseRepository.findFirstByOrderByIdAsc()
+                .orElseThrow(() -> new RuntimeException("Chưa có kho nào trong hệ thống"));
     }
 
-    private Double calculateDistance(String fromAddress, String toAddress) {
-        String from = fromAddress.toLowerCase();
-        String to = toAddress.toLowerCase();
-
-        if ((from.contains("hà nội") && to.contains("đà nẵng")) ||
-            (from.contains("đà nẵng") && to.contains("hà nội"))) {
-            return 764.0;
-        } else if ((from.contains("hà nội") && to.contains("hồ chí minh")) ||
-                   (from.contains("hồ chí minh") && to.contains("hà nội"))) {
-            return 1720.0;
-        } else if ((from.contains("đà nẵng") && to.contains("hồ chí minh")) ||
-                   (from.contains("hồ chí minh") && to.contains("đà nẵng"))) {
-            return 964.0;
+    private Double calculateDistance(CreateOrderDTO dto) {
+        if (dto.getSenderLatitude() != null && dto.getSenderLongitude() != null) {
+            Optional<Gazetteer.Place> recipient = geocodingService.geocode(dto.getRecipientAddress());
+            if (recipient.isPresent()) {
+                return geocodingService.calculateDistanceKm(dto.getSenderLatitude(), dto.getSenderLongitude(),
+                        recipient.get().getLatitude(), recipient.get().getLongitude());
+            }
         }
-
-        return 100.0;
+        return geocodingService.calculateDistanceKm(dto.getSenderAddress(), dto.getRecipientAddress());
     }
 
     public List<Order> getCustomerOrders(Long customerId) {
@@ -0,0 +1,58 @@
+package ltweb.service;
+
+import jakarta.annotation.PostConstruct;
+import ltweb.dto.DashboardStatsDTO;
+import ltweb.repository.DashboardStatsRepository;
+import ltweb.util.ExpiringCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Admin dashboard order statistics. One aggregate query per distinct date
+ * range, cached for a few seconds so page reloads do not hit the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsService {
+
+    private final DashboardStatsRepository dashboardStatsRepository;
+
+    @Value("${app.dashboard.stats.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${app.dashboard.stats.max-size:100}")
+    private int maxSize;
+
+    private ExpiringCache<String, DashboardStatsDTO> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new ExpiringCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /** Statistics for orders created in [from, to); either bound may be null. */
+    @Transactional(readOnly = true)
+    public DashboardStatsDTO getOrderStats(LocalDateTime from, LocalDateTime to) {
+        String key = from + "|" + to;
+        DashboardStatsDTO cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        DashboardStatsRepository.OrderTotals totals = dashboardStatsRepository.getOrderTotals(from, to);
+        DashboardStatsDTO stats = DashboardStatsDTO.builder()
+                .totalOrders(totals.getTotalOrders())
+                .pendingOrders(totals.getPendingOrders())
+                .inProgressOrders(totals.getInProgressOrders())
+                .completedOrders(totals.getCompletedOrders())
+                .failedOrders(totals.getFailedOrders())
+                .totalRevenue(totals.getTotalRevenue())
+                .computedAt(LocalDateTime.now())
+                .build();
+        cache.put(key, stats);
+        return stats;
+    }
+}
@@ -0,0 +1,156 @@
+package ltweb.service;
+
+import jakarta.annotation.PostConstruct;
+import ltweb.util.CsvTableWriter;
+import ltweb.util.TableWriter;
+import ltweb.util.XlsxTableWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams orders and warehouse reports to CSV or XLSX. Rows are read through a
+ * forward-only JDBC cursor and written one by one to the response, so memory
+ * stays flat whatever the row count, and a slow client slows the cursor down
+ * instead of filling the heap. A client that disconnects aborts the query.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String ORDERS_SQL = "SELECT o.order_code, o.created_at, o.status, o.service_type, "
+            + "o.payment_status, o.payment_method, o.sender_name, o.sender_phone, o.sender_address, "
+            + "o.recipient_name, o.recipient_phone, o.recipient_address, w.code AS origin_warehouse, "
+            + "dw.code AS destination_warehouse, o.total_weight, o.total_distance, o.shipment_fee "
+            + "FROM orders o "
+            + "LEFT JOIN warehouses w ON w.id = o.warehouse_id "
+            + "LEFT JOIN warehouses dw ON dw.id = o.destination_warehouse_id "
+            + "WHERE o.created_at >= ? AND o.created_at < ? "
+            + "ORDER BY o.created_at, o.id";
+
+    private static final String REPORTS_SQL = "SELECT r.id, r.report_type, r.start_date, r.end_date, "
+            + "r.total_inbound_receipts, r.total_outbound_receipts, r.total_inbound_quantity, "
+            + "r.total_outbound_quantity, r.opening_stock, r.closing_stock, r.utilization_rate, "
+            + "u.username, r.created_at, r.notes "
+            + "FROM warehouse_reports r JOIN users u ON u.id = r.user_id "
+            + "WHERE r.warehouse_id = ? "
+            + "ORDER BY r.created_at DESC, r.id DESC";
+
+    private static final Object[] ORDER_HEADER = { "Mã đơn", "Ngày tạo", "Trạng thái", "Dịch vụ",
+            "Thanh toán", "Phương thức", "Người gửi", "SĐT gửi", "Địa chỉ gửi", "Người nhận", "SĐT nhận",
+            "Địa chỉ nhận", "Kho gửi", "Kho nhận", "Khối lượng (kg)", "Quãng đường (km)", "Phí vận chuyển" };
+
+    private static final Object[] REPORT_HEADER = { "ID", "Loại", "Từ ngày", "Đến ngày", "Phiếu nhập",
+            "Phiếu xuất", "SL nhập", "SL xuất", "Tồn đầu", "Tồn cuối", "Tỷ lệ sử dụng (%)", "Người tạo",
+            "Ngày tạo", "Ghi chú" };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    private Semaphore permits;
+
+    public ExportService(DataSource dataSource) {
+        // Own template so the fetch size does not leak into other queries
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate.setFetchSize(fetchSize);
+        permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Takes one of the export slots; every successful call must be paired with
+     * {@link #release()}. Exports hold a database connection for their whole
+     * duration, so only a few run at once.
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /** Orders created between {@code from} and {@code to} inclusive, oldest first. */
+    public void exportOrders(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        export(format, out, "Đơn hàng", ORDER_HEADER, ORDERS_SQL,
+                new Object[] { Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()) });
+    }
+
+    /** All stored reports of one warehouse, newest first. */
+    public void exportWarehouseReports(Long warehouseId, Format format, OutputStream out) throws IOException {
+        export(format, out, "Báo cáo kho", REPORT_HEADER, REPORTS_SQL, new Object[] { warehouseId });
+    }
+
+    private void export(Format format, OutputStream out, String sheetName, Object[] header, String sql,
+                        Object[] args) throws IOException {
+        try (TableWriter writer = format == Format.XLSX ? new XlsxTableWriter(out, sheetName)
+                : new CsvTableWriter(out)) {
+            writer.writeRow(header);
+            jdbcTemplate.query(sql, rowWriter(writer, header.length), args);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private RowCallbackHandler rowWriter(TableWriter writer, int columns) {
+        Object[] values = new Object[columns];
+        return rs -> {
+            for (int i = 0; i < columns; i++) {
+                values[i] = readValue(rs, i + 1);
+            }
+            try {
+                writer.writeRow(values);
+            } catch (IOException e) {
+                // Ends the cursor loop; the statement is closed and the connection returned
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static Object readValue(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return value;
+    }
+}
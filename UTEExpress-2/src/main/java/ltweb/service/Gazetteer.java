@@ -0,0 +1,189 @@
+package ltweb.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Offline province/district gazetteer. Place names and aliases are normalized
+ * (lower case, no diacritics, single spaces) and stored in a token trie, so an
+ * address is resolved in one pass over its words.
+ */
+public final class Gazetteer {
+
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+	private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+	private static final String[] DISTRICT_PREFIXES = { "quan", "q", "huyen", "thi xa", "thanh pho", "tp",
+			"district" };
+
+	public enum Level {
+		PROVINCE, DISTRICT
+	}
+
+	private final TrieNode root = new TrieNode();
+	private final Map<String, Place> provinces = new HashMap<>();
+	private int placeCount;
+
+	private Gazetteer() {
+	}
+
+	/**
+	 * Loads lines of {@code level;name;province;latitude;longitude;aliases}. Lines
+	 * starting with {@code #} are comments; provinces must precede their districts.
+	 */
+	public static Gazetteer load(InputStream input) throws IOException {
+		Gazetteer gazetteer = new Gazetteer();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.strip();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				gazetteer.add(line.split(";", -1));
+			}
+		}
+		return gazetteer;
+	}
+
+	private void add(String[] fields) {
+		Level level = "D".equals(fields[0]) ? Level.DISTRICT : Level.PROVINCE;
+		String name = fields[1].strip();
+		Place province = level == Level.DISTRICT ? provinces.get(normalize(fields[2])) : null;
+		if (level == Level.DISTRICT && province == null) {
+			throw new IllegalArgumentException("Unknown province for district " + name + ": " + fields[2]);
+		}
+		Place place = new Place(level, name, province, Double.parseDouble(fields[3].strip()),
+				Double.parseDouble(fields[4].strip()));
+		placeCount++;
+
+		List<String> aliases = new ArrayList<>();
+		aliases.add(normalize(name));
+		if (fields.length > 5 && !fields[5].isBlank()) {
+			for (String alias : fields[5].split("\\|")) {
+				aliases.add(normalize(alias));
+			}
+		}
+
+		if (level == Level.PROVINCE) {
+			provinces.put(normalize(name), place);
+			for (String alias : aliases) {
+				insert(alias, place, false);
+			}
+			return;
+		}
+
+		for (String alias : aliases) {
+			// Bare district names ("1", "hai ba trung") double as street names, so they
+			// only count inside their province; prefixed forms ("quan 1") stand alone.
+			if (!alias.chars().allMatch(Character::isDigit)) {
+				insert(alias, place, true);
+			}
+			for (String prefix : DISTRICT_PREFIXES) {
+				insert(prefix + " " + alias, place, false);
+			}
+			if (alias.chars().allMatch(Character::isDigit)) {
+				insert("q" + alias, place, false);
+			}
+		}
+	}
+
+	private void insert(String alias, Place place, boolean needsProvince) {
+		TrieNode node = root;
+		for (String token : alias.split(" ")) {
+			node = node.children.computeIfAbsent(token, k -> new TrieNode());
+		}
+		node.terminals.add(new Terminal(place, needsProvince));
+	}
+
+	public int size() {
+		return placeCount;
+	}
+
+	/**
+	 * Lower-cases, strips Vietnamese diacritics and collapses punctuation to single
+	 * spaces: {@code "Q.1, TP. Hồ Chí Minh"} becomes {@code "q 1 tp ho chi minh"}.
+	 */
+	public static String normalize(String text) {
+		String lower = text.toLowerCase(Locale.ROOT).replace('đ', 'd');
+		String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+		return NON_ALPHANUMERIC.matcher(stripped).replaceAll(" ").strip();
+	}
+
+	/**
+	 * Resolves an already normalized address to the most specific place found.
+	 * Vietnamese addresses run from street to province, so the last province
+	 * mentioned wins and districts must belong to it.
+	 *
+	 * @return the matched district or province, or null when nothing matched
+	 */
+	public Place resolve(String normalizedAddress) {
+		if (normalizedAddress.isEmpty()) {
+			return null;
+		}
+		String[] tokens = normalizedAddress.split(" ");
+
+		Place province = null;
+		int provinceStart = -1;
+		List<Terminal> districtCandidates = new ArrayList<>();
+		for (int start = 0; start < tokens.length; start++) {
+			TrieNode node = root;
+			for (int end = start; end < tokens.length; end++) {
+				node = node.children.get(tokens[end]);
+				if (node == null) {
+					break;
+				}
+				for (Terminal terminal : node.terminals) {
+					if (terminal.place.getLevel() == Level.PROVINCE) {
+						if (start >= provinceStart) {
+							province = terminal.place;
+							provinceStart = start;
+						}
+					} else {
+						districtCandidates.add(terminal);
+					}
+				}
+			}
+		}
+
+		Place district = null;
+		for (Terminal terminal : districtCandidates) {
+			Place candidate = terminal.place;
+			boolean inProvince = province != null && candidate.getProvince() == province;
+			boolean standalone = province == null && !terminal.needsProvince;
+			if (inProvince || standalone) {
+				district = candidate;
+			}
+		}
+		return district != null ? district : province;
+	}
+
+	@lombok.Data
+	@lombok.AllArgsConstructor
+	public static class Place {
+		private Level level;
+		private String name;
+		@lombok.ToString.Exclude
+		@lombok.EqualsAndHashCode.Exclude
+		private Place province;
+		private double latitude;
+		private double longitude;
+	}
+
+	private record Terminal(Place place, boolean needsProvince) {
+	}
+
+	private static final class TrieNode {
+		final Map<String, TrieNode> children = new HashMap<>(4);
+		final List<Terminal> terminals = new ArrayList<>(1);
+	}
+}
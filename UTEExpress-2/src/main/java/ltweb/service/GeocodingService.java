@@ -0,0 +1,84 @@
+package ltweb.service;
+
+import jakarta.annotation.PostConstruct;
+import ltweb.util.ExpiringCache;
+import ltweb.util.GeoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Offline address geocoding and distance estimation backed by the bundled
+ * gazetteer. No external service is called; resolved addresses are cached by
+ * their normalized form.
+ */
+@Service
+public class GeocodingService {
+
+	@Value("${app.geo.gazetteer:geo/vn-gazetteer.txt}")
+	private String gazetteerPath;
+
+	// Road distance is on average ~1.4x the great-circle distance between hubs
+	@Value("${app.geo.road-factor:1.4}")
+	private double roadFactor;
+
+	@Value("${app.geo.default-distance-km:100}")
+	private double defaultDistanceKm;
+
+	// Two addresses in the same place are still a pickup and a drop-off apart
+	@Value("${app.geo.min-distance-km:10}")
+	private double minDistanceKm;
+
+	@Value("${app.geo.cache.max-size:50000}")
+	private int cacheMaxSize;
+
+	@Value("${app.geo.cache.ttl-seconds:86400}")
+	private long cacheTtlSeconds;
+
+	private Gazetteer gazetteer;
+	private ExpiringCache<String, Optional<Gazetteer.Place>> geocodeCache;
+
+	@PostConstruct
+	void init() throws IOException {
+		try (InputStream input = new ClassPathResource(gazetteerPath).getInputStream()) {
+			gazetteer = Gazetteer.load(input);
+		}
+		geocodeCache = new ExpiringCache<>(cacheMaxSize, cacheTtlSeconds * 1000);
+	}
+
+	/** @return the most specific gazetteer place named in the address, if any */
+	public Optional<Gazetteer.Place> geocode(String address) {
+		if (address == null) {
+			return Optional.empty();
+		}
+		String normalized = Gazetteer.normalize(address);
+		Optional<Gazetteer.Place> cached = geocodeCache.get(normalized);
+		if (cached != null) {
+			return cached;
+		}
+		Optional<Gazetteer.Place> place = Optional.ofNullable(gazetteer.resolve(normalized));
+		geocodeCache.put(normalized, place);
+		return place;
+	}
+
+	/** Estimated road distance between two addresses, or the default when either cannot be resolved. */
+	public double calculateDistanceKm(String fromAddress, String toAddress) {
+		Optional<Gazetteer.Place> from = geocode(fromAddress);
+		Optional<Gazetteer.Place> to = geocode(toAddress);
+		if (from.isEmpty() || to.isEmpty()) {
+			return defaultDistanceKm;
+		}
+		return calculateDistanceKm(from.get().getLatitude(), from.get().getLongitude(), to.get().getLatitude(),
+				to.get().getLongitude());
+	}
+
+	public double calculateDistanceKm(double fromLatitude, double fromLongitude, double toLatitude,
+			double toLongitude) {
+		double km = GeoUtils.haversineKm(fromLatitude, fromLongitude, toLatitude, toLongitude) * roadFactor;
+		return Math.max(minDistanceKm, Math.round(km * 10) / 10.0);
+	}
+}
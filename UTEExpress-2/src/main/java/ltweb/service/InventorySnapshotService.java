@@ -0,0 +1,142 @@
+package ltweb.service;
+
+import ltweb.entity.InventorySnapshot;
+import ltweb.repository.InboundReceiptDetailRepository;
+import ltweb.repository.InventoryRepository;
+import ltweb.repository.InventorySnapshotRepository;
+import ltweb.repository.OutboundReceiptDetailRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily per-warehouse stock snapshots taken at midnight. Stock at any instant
+ * is the nearest snapshot (or the live inventory, when that is nearer) plus
+ * or minus the receipts in between, so a historical report reads a day or so
+ * of receipts instead of everything since the report period.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventorySnapshotService {
+
+    private static final String INBOUND_SUM = "COALESCE((SELECT SUM(d.quantity) FROM inbound_receipt_details d "
+            + "JOIN inbound_receipts r ON r.id = d.inbound_receipt_id "
+            + "WHERE r.warehouse_id = %1$s AND r.received_date > ? %2$s), 0)";
+
+    private static final String OUTBOUND_SUM = "COALESCE((SELECT SUM(d.quantity) FROM outbound_receipt_details d "
+            + "JOIN outbound_receipts r ON r.id = d.outbound_receipt_id "
+            + "WHERE r.warehouse_id = %1$s AND r.issued_date > ? %2$s), 0)";
+
+    // Live stock minus everything received after the snapshot instant, plus everything issued after it
+    private static final String SNAPSHOT_SQL = "INSERT INTO inventory_snapshots (warehouse_id, snapshot_at, quantity, created_at) "
+            + "SELECT w.id, ?, "
+            + "COALESCE((SELECT SUM(i.remaining_quantity) FROM inventories i WHERE i.warehouse_id = w.id), 0) "
+            + "- " + String.format(INBOUND_SUM, "w.id", "") + " + " + String.format(OUTBOUND_SUM, "w.id", "") + ", ? "
+            + "FROM warehouses w WHERE NOT EXISTS "
+            + "(SELECT 1 FROM inventory_snapshots s WHERE s.warehouse_id = w.id AND s.snapshot_at = ?)";
+
+    // The previous day's snapshot, derived from the following day's one
+    private static final String BACKFILL_SQL = "INSERT INTO inventory_snapshots (warehouse_id, snapshot_at, quantity, created_at) "
+            + "SELECT s.warehouse_id, ?, s.quantity "
+            + "- " + String.format(INBOUND_SUM, "s.warehouse_id", "AND r.received_date <= ?")
+            + " + " + String.format(OUTBOUND_SUM, "s.warehouse_id", "AND r.issued_date <= ?") + ", ? "
+            + "FROM inventory_snapshots s WHERE s.snapshot_at = ? AND NOT EXISTS "
+            + "(SELECT 1 FROM inventory_snapshots p WHERE p.warehouse_id = s.warehouse_id AND p.snapshot_at = ?)";
+
+    private static final String SNAPSHOT_LOCK = "inventory-snapshots";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventorySnapshotRepository snapshotRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InboundReceiptDetailRepository inboundReceiptDetailRepository;
+    private final OutboundReceiptDetailRepository outboundReceiptDetailRepository;
+    private final ClusterLockService clusterLockService;
+
+    @Value("${app.inventory.snapshot.backfill-days:400}")
+    private int backfillDays;
+
+    /** On the first start, snapshots today and derives the preceding days from it. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            // Nodes starting together leave it to whichever gets the lock
+            clusterLockService.runExclusively(SNAPSHOT_LOCK, this::backfill);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Inventory snapshot initialization failed: " + e.getMessage());
+        }
+    }
+
+    private void backfill() {
+        if (snapshotRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime midnight = LocalDate.now().atStartOfDay();
+        takeSnapshot(midnight);
+        for (int day = 0; day < backfillDays; day++) {
+            LocalDateTime next = midnight.minusDays(day);
+            LocalDateTime previous = next.minusDays(1);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.update(BACKFILL_SQL, Timestamp.valueOf(previous),
+                    Timestamp.valueOf(previous), Timestamp.valueOf(next),
+                    Timestamp.valueOf(previous), Timestamp.valueOf(next),
+                    now, Timestamp.valueOf(next), Timestamp.valueOf(previous));
+        }
+    }
+
+    @Scheduled(cron = "${app.inventory.snapshot.cron:0 1 0 * * *}")
+    public void takeDailySnapshot() {
+        try {
+            clusterLockService.runExclusively(SNAPSHOT_LOCK, () -> takeSnapshot(LocalDate.now().atStartOfDay()));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Inventory snapshot failed: " + e.getMessage());
+        }
+    }
+
+    /** Snapshots every warehouse that has no snapshot at {@code at} yet. */
+    public int takeSnapshot(LocalDateTime at) {
+        Timestamp snapshotAt = Timestamp.valueOf(at);
+        return jdbcTemplate.update(SNAPSHOT_SQL, snapshotAt, snapshotAt, snapshotAt,
+                Timestamp.valueOf(LocalDateTime.now()), snapshotAt);
+    }
+
+    /** Stock of a warehouse at {@code at}, counting receipts dated up to and including it. */
+    public int getStockAt(Long warehouseId, LocalDateTime at) {
+        InventorySnapshot before = snapshotRepository
+                .findFirstByWarehouseIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(warehouseId, at)
+                .orElse(null);
+        InventorySnapshot after = snapshotRepository
+                .findFirstByWarehouseIdAndSnapshotAtGreaterThanOrderBySnapshotAtAsc(warehouseId, at)
+                .orElse(null);
+        // With nothing after the date, the live inventory is the next reference point
+        Duration forwardGap = Duration.between(at, after != null ? after.getSnapshotAt() : LocalDateTime.now());
+
+        if (before != null && Duration.between(before.getSnapshotAt(), at).compareTo(forwardGap) <= 0) {
+            long received = inboundReceiptDetailRepository
+                    .sumQuantityByWarehouseIdAndReceivedDateInterval(warehouseId, before.getSnapshotAt(), at);
+            long issued = outboundReceiptDetailRepository
+                    .sumQuantityByWarehouseIdAndIssuedDateInterval(warehouseId, before.getSnapshotAt(), at);
+            return (int) (before.getQuantity() + received - issued);
+        }
+        if (after != null) {
+            long received = inboundReceiptDetailRepository
+                    .sumQuantityByWarehouseIdAndReceivedDateInterval(warehouseId, at, after.getSnapshotAt());
+            long issued = outboundReceiptDetailRepository
+                    .sumQuantityByWarehouseIdAndIssuedDateInterval(warehouseId, at, after.getSnapshotAt());
+            return (int) (after.getQuantity() - received + issued);
+        }
+
+        Integer totalStock = inventoryRepository.getTotalRemainingQuantityByWarehouseId(warehouseId);
+        long received = inboundReceiptDetailRepository.sumQuantityByWarehouseIdAndReceivedDateAfter(warehouseId, at);
+        long issued = outboundReceiptDetailRepository.sumQuantityByWarehouseIdAndIssuedDateAfter(warehouseId, at);
+        return (int) ((totalStock != null ? totalStock : 0) - received + issued);
+    }
+}
@@ -0,0 +1,163 @@
+package ltweb.service;
+
+import jakarta.annotation.PreDestroy;
+import ltweb.dto.LocationUpdateDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingestion path for shipper GPS pings. Each ping only replaces the shipment's
+ * latest position in memory; subscribers get the newest point once per tick
+ * as a {@link TrackingStreamService} delta.
+ * Points pass through a per-shipment {@link TrajectorySimplifier}, and only the
+ * ones it keeps are appended to the shipment's trail, one write per shipment
+ * per flush.
+ */
+@Service
+@RequiredArgsConstructor
+public class LocationIngestionService {
+
+	private final TrackingTrailService trackingTrailService;
+	private final TrackingStreamService trackingStreamService;
+
+	@Value("${app.tracking.simplify.tolerance-meters:15}")
+	private double toleranceMeters;
+
+	@Value("${app.tracking.simplify.max-gap-seconds:300}")
+	private long maxGapSeconds;
+
+	@Value("${app.tracking.simplify.max-window:500}")
+	private int maxWindow;
+
+	@Value("${app.tracking.ingest.max-pending:100000}")
+	private int maxPending;
+
+	@Value("${app.tracking.ingest.idle-minutes:30}")
+	private long idleMinutes;
+
+	private final Map<Long, ShipmentLocation> locations = new ConcurrentHashMap<>();
+	private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+	private final Queue<LocationUpdateDTO> pendingWrites = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pendingCount = new AtomicInteger();
+
+	/**
+	 * Records a ping. Returns immediately; nothing is written or sent on the
+	 * caller's thread.
+	 */
+	public LocationUpdateDTO record(Long shipmentId, double latitude, double longitude, String description) {
+		if (shipmentId == null || !(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+			throw new IllegalArgumentException("Tọa độ không hợp lệ");
+		}
+		LocationUpdateDTO point = LocationUpdateDTO.builder()
+				.shipmentId(shipmentId)
+				.latitude(latitude)
+				.longitude(longitude)
+				.description(description)
+				.createdAt(LocalDateTime.now())
+				.build();
+
+		locations.compute(shipmentId, (id, location) -> {
+			if (location == null) {
+				location = new ShipmentLocation(new TrajectorySimplifier(toleranceMeters, maxGapSeconds, maxWindow));
+			}
+			location.latest = point;
+			enqueueWrites(location.simplifier.offer(point));
+			return location;
+		});
+		changed.add(shipmentId);
+		return point;
+	}
+
+	/** @return the newest known position, or null when the shipment has not pinged recently */
+	public LocationUpdateDTO getLatestLocation(Long shipmentId) {
+		ShipmentLocation location = locations.get(shipmentId);
+		return location != null ? location.latest : null;
+	}
+
+	private void enqueueWrites(List<LocationUpdateDTO> points) {
+		for (LocationUpdateDTO point : points) {
+			if (pendingCount.incrementAndGet() > maxPending) {
+				// The database is falling behind: keep the live position, skip this point
+				pendingCount.decrementAndGet();
+				continue;
+			}
+			pendingWrites.add(point);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.tracking.ingest.fanout-interval-ms:1000}")
+	public void broadcastLatest() {
+		for (Iterator<Long> it = changed.iterator(); it.hasNext();) {
+			Long shipmentId = it.next();
+			it.remove();
+			ShipmentLocation location = locations.get(shipmentId);
+			if (location == null) {
+				continue;
+			}
+			trackingStreamService.publishPosition(location.latest);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.tracking.ingest.flush-interval-ms:5000}")
+	public void flush() {
+		flush(LocalDateTime.now().minusMinutes(idleMinutes));
+	}
+
+	@PreDestroy
+	void shutdown() {
+		flush(LocalDateTime.MAX);
+	}
+
+	/** Writes pending points, first closing the trails of shipments idle since {@code idleBefore}. */
+	private void flush(LocalDateTime idleBefore) {
+		for (Long shipmentId : locations.keySet()) {
+			locations.computeIfPresent(shipmentId, (id, location) -> {
+				if (!location.latest.getCreatedAt().isBefore(idleBefore)) {
+					return location;
+				}
+				// The last point was still floating in the simplifier
+				enqueueWrites(location.simplifier.finish());
+				return null;
+			});
+		}
+
+		Map<Long, List<LocationUpdateDTO>> byShipment = new LinkedHashMap<>();
+		LocationUpdateDTO point;
+		while ((point = pendingWrites.poll()) != null) {
+			pendingCount.decrementAndGet();
+			byShipment.computeIfAbsent(point.getShipmentId(), id -> new ArrayList<>()).add(point);
+		}
+
+		for (Map.Entry<Long, List<LocationUpdateDTO>> entry : byShipment.entrySet()) {
+			try {
+				trackingTrailService.append(entry.getKey(), entry.getValue());
+			} catch (RuntimeException e) {
+				System.err.println("❌ Trail append failed for shipment " + entry.getKey() + ": " + e.getMessage());
+			}
+		}
+	}
+
+	private static final class ShipmentLocation {
+		// Written under ConcurrentHashMap.compute, read by the broadcast tick
+		volatile LocationUpdateDTO latest;
+		final TrajectorySimplifier simplifier;
+
+		ShipmentLocation(TrajectorySimplifier simplifier) {
+			this.simplifier = simplifier;
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package ltweb.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import ltweb.dto.NotificationDTO;
+import ltweb.event.NotificationRequestedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer for notifications. Requests are queued once the caller's
+ * transaction commits; a single worker drains the queue, inserts each batch
+ * with one JDBC batch statement and then pushes the WebSocket messages to
+ * the recipients that have a live session.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+
+    private static final String INSERT_SQL = "INSERT INTO notifications "
+            + "(user_id, recipient_type, message, type, order_id, is_read, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // Subscribed to as /user/queue/notifications; only the recipient's own sessions receive it
+    private static final String USER_DESTINATION = "/queue/notifications";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final UserSessionRegistry userSessionRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.notifications.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.notifications.poll-interval-ms:100}")
+    private long pollIntervalMillis;
+
+    private BlockingQueue<NotificationRequestedEvent> queue;
+    private TransactionTemplate overflowTransaction;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        overflowTransaction = new TransactionTemplate(transactionManager);
+        overflowTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        running = true;
+        worker = new Thread(this::drainLoop, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever the worker left behind is written on the shutdown thread
+        List<NotificationRequestedEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            dispatch(remaining);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationRequested(NotificationRequestedEvent event) {
+        if (!queue.offer(event)) {
+            // Queue full: write on the caller's thread rather than dropping. This runs after the
+            // caller committed, so the insert needs a transaction of its own to be committed too
+            overflowTransaction.executeWithoutResult(status -> dispatch(List.of(event)));
+        }
+    }
+
+    private void drainLoop() {
+        List<NotificationRequestedEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                NotificationRequestedEvent first = queue.poll(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Notification dispatch failed: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<NotificationRequestedEvent> batch) {
+        List<NotificationRequestedEvent> stored = insert(batch);
+        for (NotificationRequestedEvent event : stored) {
+            push(event);
+        }
+    }
+
+    /** @return the notifications that were stored */
+    private List<NotificationRequestedEvent> insert(List<NotificationRequestedEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    bind(ps, batch.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            return batch;
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                logRejected(batch.get(0), e);
+                return List.of();
+            }
+        }
+
+        // One bad row (e.g. a deleted user) must not cost the rest of the batch
+        List<NotificationRequestedEvent> stored = new ArrayList<>(batch.size());
+        for (NotificationRequestedEvent event : batch) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, event));
+                stored.add(event);
+            } catch (DataAccessException e) {
+                logRejected(event, e);
+            }
+        }
+        return stored;
+    }
+
+    private static void logRejected(NotificationRequestedEvent event, DataAccessException e) {
+        System.err.println("❌ Notification dropped for user " + event.getUserId() + " (" + event.getType()
+                + ", order " + event.getOrderCode() + "): " + event.getMessage() + " - " + e.getMessage());
+    }
+
+    private static void bind(PreparedStatement ps, NotificationRequestedEvent event) throws SQLException {
+        ps.setLong(1, event.getUserId());
+        ps.setString(2, event.getRecipientType());
+        ps.setString(3, event.getMessage());
+        ps.setString(4, event.getType().name());
+        if (event.getOrderId() != null) {
+            ps.setLong(5, event.getOrderId());
+        } else {
+            ps.setNull(5, Types.BIGINT);
+        }
+        ps.setBoolean(6, false);
+        ps.setTimestamp(7, Timestamp.valueOf(event.getCreatedAt()));
+    }
+
+    private void push(NotificationRequestedEvent event) {
+        String username = userSessionRegistry.findDeliveryTarget(event.getUserId());
+        if (username == null) {
+            // Nobody connected; the stored notification is shown on the next page load
+            return;
+        }
+        NotificationDTO payload = NotificationDTO.builder()
+                .recipientType(event.getRecipientType())
+                .recipientId(event.getUserId())
+                .message(event.getMessage())
+                .isRead(false)
+                .type(event.getType())
+                .orderId(event.getOrderId())
+                .orderCode(event.getOrderCode())
+                .createdAt(event.getCreatedAt())
+                .build();
+        try {
+            messagingTemplate.convertAndSendToUser(username, USER_DESTINATION, payload);
+        } catch (Exception e) {
+            System.err.println("❌ WebSocket send failed: " + e.getMessage());
+        }
+    }
+}
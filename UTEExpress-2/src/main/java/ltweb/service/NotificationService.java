@@ -2,11 +2,13 @@
 package ltweb.service;
 
 import ltweb.entity.*;
+import ltweb.event.NotificationRequestedEvent;
 import ltweb.repository.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -15,93 +17,40 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
-
-    @Transactional
-    public Notification createNotification(Long userId, String recipientType,
-                                           String message, NotificationType type, Order order) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Notification notification = Notification.builder()
-                .user(user)
-                .recipientType(recipientType)
-                .message(message)
-                .type(type)
-                .order(order)
-                .isRead(false)
-                .build();
-
-        notification = notificationRepository.save(notification);
-
-        try {
-            String destination = "/topic/notifications/" + recipientType + "/" + userId;
-            messagingTemplate.convertAndSend(destination, notification);
-            
-            System.out.println("=== WEBSOCKET SENT ===");
-            System.out.println("Destination: " + destination);
-            System.out.println("Message: " + message);
-        } catch (Exception e) {
-            System.err.println("❌ WebSocket send failed: " + e.getMessage());
-            e.printStackTrace();
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Queues a notification. It is stored and pushed over WebSocket in the
+     * background once the caller's transaction commits, and not at all if it
+     * rolls back. An id without a user is only found by the background insert,
+     * which logs and drops the notification.
+     */
+    public void createNotification(Long userId, String recipientType,
+                                   String message, NotificationType type, Order order) {
+        if (userId == null || type == null) {
+            throw new RuntimeException("Notification needs a user and a type");
         }
-
-        return notification;
+        eventPublisher.publishEvent(new NotificationRequestedEvent(userId, recipientType, message, type,
+                order != null ? order.getId() : null, order != null ? order.getOrderCode() : null,
+                LocalDateTime.now()));
     }
 
-    @Transactional
-    public Notification createCustomerNotification(Long customerId, String message,
-                                                    NotificationType type, Order order) {
-        User user = userRepository.findById(customerId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Notification notification = Notification.builder()
-                .user(user)
-                .recipientType("CUSTOMER")
-                .message(message)
-                .type(type)
-                .order(order)
-                .isRead(false)
-                .build();
-
-        notification = notificationRepository.save(notification);
-
-        // ✅ WebSocket broadcast
-        try {
-            messagingTemplate.convertAndSend("/topic/notifications/CUSTOMER/" + customerId, notification);
-            System.out.println("✅ Customer notification sent to: /topic/notifications/CUSTOMER/" + customerId);
-        } catch (Exception e) {
-            System.err.println("❌ WebSocket failed: " + e.getMessage());
+    /** Notifications are addressed by user id; a customer receives them through its account. */
+    public void createCustomerNotification(Customer customer, String message,
+                                           NotificationType type, Order order) {
+        if (customer.getUser() == null) {
+            return;
         }
-
-        return notification;
+        createNotification(customer.getUser().getId(), "CUSTOMER", message, type, order);
     }
 
-    @Transactional
     public void notifyWarehouseForNewOrder(Order order) {
         if (order.getWarehouse() != null && order.getWarehouse().getUser() != null) {
             User warehouseUser = order.getWarehouse().getUser();
             String message = "Đơn hàng mới: " + order.getOrderCode() +
                     " từ khách hàng " + order.getCustomer().getFullName();
 
-            Notification notification = Notification.builder()
-                    .user(warehouseUser)
-                    .recipientType("WAREHOUSE")
-                    .message(message)
-                    .type(NotificationType.ORDER_CREATED)
-                    .order(order)
-                    .isRead(false)
-                    .build();
-
-            notification = notificationRepository.save(notification);
-
-            // ✅ WebSocket broadcast
-            try {
-                messagingTemplate.convertAndSend("/topic/notifications/WAREHOUSE/" + warehouseUser.getId(), notification);
-                System.out.println("✅ Warehouse notification sent");
-            } catch (Exception e) {
-                System.err.println("❌ WebSocket failed: " + e.getMessage());
-            }
+            createNotification(warehouseUser.getId(), "WAREHOUSE", message, NotificationType.ORDER_CREATED, order);
         }
     }
 
@@ -154,28 +103,11 @@ public class NotificationService {
         notificationRepository.deleteById(notificationId);
     }
 
-    @Transactional
     public void sendCustomNotification(String recipientType, Long userId, String message) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Notification notification = Notification.builder()
-                .user(user)
-                .recipientType(recipientType)
-                .message(message)
-                .type(NotificationType.SYSTEM_ALERT)
-                .isRead(false)
-                .build();
-
-        notification = notificationRepository.save(notification);
-
-        // ✅ WebSocket broadcast
-        try {
-            messagingTemplate.convertAndSend("/topic/notifications/" + recipientType + "/" + userId, notification);
-            System.out.println("✅ Custom notification sent");
-        } catch (Exception e) {
-            System.err.println("❌ WebSocket failed: " + e.getMessage());
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
         }
+        createNotification(userId, recipientType, message, NotificationType.SYSTEM_ALERT, null);
     }
 
     public List<Notification> getAllNotificationsForAdmin() {
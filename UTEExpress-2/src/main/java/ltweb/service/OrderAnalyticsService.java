@@ -0,0 +1,256 @@
+package ltweb.service;
+
+import ltweb.dto.OrderStatsDTO;
+import ltweb.entity.OrderDailyRollup;
+import ltweb.entity.OrderMonthlyRollup;
+import ltweb.entity.OrderStatus;
+import ltweb.event.OrderChangedEvent;
+import ltweb.repository.OrderDailyRollupRepository;
+import ltweb.repository.OrderMonthlyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Order analytics served from daily and monthly rollups instead of the
+ * {@code orders} table. Every committed {@link OrderChangedEvent} marks the
+ * days it touches; a short job recomputes those days from {@code orders} and
+ * their months from the daily rows, and a nightly job does the same for
+ * recent months to repair anything a crash lost.
+ * <p>
+ * Rollups are only ever overwritten with totals recomputed from committed
+ * orders, never adjusted by deltas, so refreshes and rebuilds can run any
+ * number of times, on any node, next to order writes without locking them.
+ * Refreshes of one month take a cluster lock so an older computation never
+ * lands after a newer one.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderAnalyticsService {
+
+    private static final String NO_SERVICE_TYPE = "NONE";
+
+    private static final String REFRESH_DAYS_SQL = "MERGE order_daily_rollups WITH (HOLDLOCK) AS t "
+            + "USING (SELECT CAST(created_at AS DATE) AS period_start, status, "
+            + "COALESCE(service_type, '" + NO_SERVICE_TYPE + "') AS service_type, "
+            + "COUNT(*) AS order_count, SUM(shipment_fee) AS revenue "
+            + "FROM orders WHERE created_at >= ? AND created_at < ? "
+            + "GROUP BY CAST(created_at AS DATE), status, COALESCE(service_type, '" + NO_SERVICE_TYPE + "')) AS s "
+            + "ON t.period_start = s.period_start AND t.status = s.status AND t.service_type = s.service_type "
+            + "WHEN MATCHED THEN UPDATE SET order_count = s.order_count, revenue = s.revenue "
+            + "WHEN NOT MATCHED BY TARGET THEN INSERT (period_start, status, service_type, order_count, revenue) "
+            + "VALUES (s.period_start, s.status, s.service_type, s.order_count, s.revenue) "
+            + "WHEN NOT MATCHED BY SOURCE AND t.period_start >= ? AND t.period_start < ? THEN DELETE;";
+
+    private static final String REFRESH_MONTH_SQL = "MERGE order_monthly_rollups WITH (HOLDLOCK) AS t "
+            + "USING (SELECT status, service_type, SUM(order_count) AS order_count, SUM(revenue) AS revenue "
+            + "FROM order_daily_rollups WHERE period_start >= ? AND period_start < ? "
+            + "GROUP BY status, service_type) AS s "
+            + "ON t.period_start = ? AND t.status = s.status AND t.service_type = s.service_type "
+            + "WHEN MATCHED THEN UPDATE SET order_count = s.order_count, revenue = s.revenue "
+            + "WHEN NOT MATCHED BY TARGET THEN INSERT (period_start, status, service_type, order_count, revenue) "
+            + "VALUES (?, s.status, s.service_type, s.order_count, s.revenue) "
+            + "WHEN NOT MATCHED BY SOURCE AND t.period_start = ? THEN DELETE;";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ClusterLockService clusterLockService;
+    private final OrderDailyRollupRepository dailyRollupRepository;
+    private final OrderMonthlyRollupRepository monthlyRollupRepository;
+
+    // Creation dates of orders changed since the last refresh
+    private final Set<LocalDate> dirtyDays = ConcurrentHashMap.newKeySet();
+
+    /** Marks the days the order moved between, once the change is committed. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getPrevious() != null) {
+            dirtyDays.add(event.getPrevious().getCreatedDate());
+        }
+        if (event.getCurrent() != null) {
+            dirtyDays.add(event.getCurrent().getCreatedDate());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reports.rollup.refresh-interval-ms:5000}")
+    public void refreshChanged() {
+        Map<YearMonth, Set<LocalDate>> byMonth = new TreeMap<>();
+        for (Iterator<LocalDate> it = dirtyDays.iterator(); it.hasNext();) {
+            LocalDate day = it.next();
+            it.remove();
+            byMonth.computeIfAbsent(YearMonth.from(day), month -> new TreeSet<>()).add(day);
+        }
+        byMonth.forEach((month, days) -> {
+            try {
+                refresh(month, days);
+            } catch (RuntimeException e) {
+                // Picked up again by the next run
+                dirtyDays.addAll(days);
+                System.err.println("❌ Order rollup refresh failed for " + month + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /** Fills empty rollups on the first start after deployment. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            if (monthlyRollupRepository.count() == 0) {
+                rebuild(null);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Order rollup initialization failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.reports.rollup.reconcile-cron:0 30 2 * * *}")
+    public void reconcile() {
+        try {
+            // Current and previous month: late status changes land here
+            clusterLockService.runExclusively("order-rollups.reconcile",
+                    () -> rebuild(YearMonth.now().minusMonths(1)));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Order rollup reconcile failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes rollups from {@code orders} for every month from {@code since}
+     * (or the first order) up to the current month, one month per transaction.
+     */
+    public void rebuild(YearMonth since) {
+        if (since == null) {
+            Timestamp first = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM orders", Timestamp.class);
+            if (first == null) {
+                return;
+            }
+            since = YearMonth.from(first.toLocalDateTime());
+        }
+        for (YearMonth month = since; !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            refresh(month, null);
+        }
+    }
+
+    /** Recomputes the given days of a month (all of it when null), then the month from its days. */
+    private void refresh(YearMonth month, Collection<LocalDate> days) {
+        LocalDate monthStart = month.atDay(1);
+        LocalDate nextMonth = month.plusMonths(1).atDay(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.executeWithoutResult(status -> {
+            clusterLockService.lockExclusive("order-rollups." + month);
+            if (days == null) {
+                refreshDays(monthStart, nextMonth);
+            } else {
+                days.forEach(day -> refreshDays(day, day.plusDays(1)));
+            }
+            jdbcTemplate.update(REFRESH_MONTH_SQL, Date.valueOf(monthStart), Date.valueOf(nextMonth),
+                    Date.valueOf(monthStart), Date.valueOf(monthStart), Date.valueOf(monthStart));
+        });
+    }
+
+    private void refreshDays(LocalDate from, LocalDate to) {
+        jdbcTemplate.update(REFRESH_DAYS_SQL, Date.valueOf(from), Date.valueOf(to), Date.valueOf(from),
+                Date.valueOf(to));
+    }
+
+    /**
+     * Totals for orders created between {@code from} and {@code to} inclusive,
+     * or over all time when either is null. Whole months are read from the
+     * monthly rollup and only the partial months at either end day by day.
+     */
+    @Transactional(readOnly = true)
+    public OrderStatsDTO getStats(LocalDate from, LocalDate to) {
+        Accumulator accumulator = new Accumulator();
+        if (from == null || to == null) {
+            monthlyRollupRepository.findAll().forEach(accumulator::add);
+            return accumulator.toStats();
+        }
+        if (to.isBefore(from)) {
+            return accumulator.toStats();
+        }
+
+        LocalDate firstFullMonth = from.getDayOfMonth() == 1 ? from : from.withDayOfMonth(1).plusMonths(1);
+        LocalDate endOfFullMonths = to.plusDays(1).withDayOfMonth(1);
+        if (firstFullMonth.isBefore(endOfFullMonths)) {
+            monthlyRollupRepository.findByPeriodStartBetween(firstFullMonth, endOfFullMonths.minusMonths(1))
+                    .forEach(accumulator::add);
+            if (from.isBefore(firstFullMonth)) {
+                dailyRollupRepository.findByPeriodStartBetween(from, firstFullMonth.minusDays(1))
+                        .forEach(accumulator::add);
+            }
+            if (!endOfFullMonths.isAfter(to)) {
+                dailyRollupRepository.findByPeriodStartBetween(endOfFullMonths, to).forEach(accumulator::add);
+            }
+        } else {
+            dailyRollupRepository.findByPeriodStartBetween(from, to).forEach(accumulator::add);
+        }
+        return accumulator.toStats();
+    }
+
+    private static final class Accumulator {
+        private long totalOrders;
+        private long completedOrders;
+        private BigDecimal totalRevenue = BigDecimal.ZERO;
+        private final Map<String, Long> byStatus = new LinkedHashMap<>();
+        private final Map<String, Long> byServiceType = new LinkedHashMap<>();
+        private final Map<YearMonth, BigDecimal> revenueByMonth = new TreeMap<>();
+
+        void add(OrderDailyRollup rollup) {
+            add(rollup.getPeriodStart(), rollup.getStatus(), rollup.getServiceType(), rollup.getOrderCount(),
+                    rollup.getRevenue());
+        }
+
+        void add(OrderMonthlyRollup rollup) {
+            add(rollup.getPeriodStart(), rollup.getStatus(), rollup.getServiceType(), rollup.getOrderCount(),
+                    rollup.getRevenue());
+        }
+
+        private void add(LocalDate periodStart, String status, String serviceType, long count, BigDecimal revenue) {
+            if (count == 0) {
+                return;
+            }
+            totalOrders += count;
+            byStatus.merge(status, count, Long::sum);
+            byServiceType.merge(serviceType, count, Long::sum);
+            if (OrderStatus.HOAN_THANH.name().equals(status)) {
+                completedOrders += count;
+                totalRevenue = totalRevenue.add(revenue);
+                revenueByMonth.merge(YearMonth.from(periodStart), revenue, BigDecimal::add);
+            }
+        }
+
+        OrderStatsDTO toStats() {
+            return OrderStatsDTO.builder()
+                    .totalOrders(totalOrders)
+                    .completedOrders(completedOrders)
+                    .totalRevenue(totalRevenue)
+                    .ordersByStatus(byStatus)
+                    .ordersByServiceType(byServiceType)
+                    .revenueByMonth(revenueByMonth)
+                    .build();
+        }
+    }
+}
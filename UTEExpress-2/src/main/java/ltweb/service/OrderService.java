@@ -5,6 +5,7 @@ import ltweb.entity.*;
 import ltweb.entity.Package;
 import ltweb.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -147,6 +148,10 @@ public class OrderService {
         return orderRepository.findAll();
     }
 
+    public List<Order> getRecentOrders(int limit) {
+        return orderRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, limit));
+    }
+
     public Order getOrderById(Long id) {
         return orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
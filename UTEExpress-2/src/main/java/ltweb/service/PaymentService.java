@@ -45,7 +45,7 @@ public class PaymentService {
 
             if (order.getCustomer() != null) {
                 notificationService.createCustomerNotification(
-                    order.getCustomer().getId(),
+                    order.getCustomer(),
                     "Đơn hàng " + order.getOrderCode() + " đã được xác nhận. Bạn sẽ thanh toán khi nhận hàng.",
                     NotificationType.ORDER_CREATED,
                     order
@@ -69,7 +69,7 @@ public class PaymentService {
 
         if (order.getCustomer() != null) {
             notificationService.createCustomerNotification(
-                order.getCustomer().getId(),
+                order.getCustomer(),
                 "Thanh toán đơn hàng " + order.getOrderCode() + " thành công. Đơn hàng đang được xử lý.",
                 NotificationType.ORDER_CREATED,
                 order
@@ -111,7 +111,7 @@ public class PaymentService {
         // Thông báo cho customer
         if (order.getCustomer() != null) {
             notificationService.createCustomerNotification(
-                order.getCustomer().getId(),
+                order.getCustomer(),
                 "Thanh toán đơn hàng " + order.getOrderCode() + " thành công. Đơn hàng đang được xử lý.",
                 NotificationType.ORDER_CREATED,
                 order
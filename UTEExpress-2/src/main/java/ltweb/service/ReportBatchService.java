@@ -0,0 +1,326 @@
+package ltweb.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import ltweb.dto.ReportBatchStatusDTO;
+import ltweb.entity.ReportType;
+import ltweb.entity.User;
+import ltweb.repository.UserRepository;
+import ltweb.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates one report type for every warehouse and every period in a range.
+ * Warehouses are processed in parallel on a fixed pool, each one working
+ * through its periods in order; every report is generated in its own
+ * transaction by {@link ReportService}, so one failing warehouse does not
+ * roll back the others. Progress is kept per job and can be polled.
+ * <p>
+ * At day close the same machinery stores the previous day's daily reports,
+ * followed by the weekly, monthly, quarterly and yearly reports of any period
+ * that ended with it; those are rolled up from the daily reports just stored.
+ * Only one node closes the day: a task on the batch pool holds a cluster lock
+ * until the job is done, so the scheduler thread is never kept waiting.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportBatchService {
+
+    private static final int MAX_ERRORS = 50;
+
+    private final ReportService reportService;
+    private final WarehouseRepository warehouseRepository;
+    private final UserRepository userRepository;
+    private final ClusterLockService clusterLockService;
+
+    // Each worker holds a database connection while it runs; keep well under the pool size
+    @Value("${app.reports.batch.threads:4}")
+    private int threads;
+
+    @Value("${app.reports.batch.max-periods:366}")
+    private int maxPeriods;
+
+    @Value("${app.reports.batch.history:20}")
+    private int history;
+
+    // Recorded as the author of precomputed reports
+    @Value("${app.reports.precompute.username:admin}")
+    private String precomputeUsername;
+
+    private ExecutorService executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // One thread more than the workers, for a day close waiting on its job
+        executor = new ThreadPoolExecutor(threads + 1, threads + 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "report-batch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues reports of {@code reportType} for every warehouse and every period
+     * from the one containing {@code from} to the one containing {@code to}.
+     * Returns immediately; poll {@link #getStatus(String)} for progress.
+     */
+    public ReportBatchStatusDTO startBatch(ReportType reportType, LocalDate from, LocalDate to, User createdBy) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("End period is before start period");
+        }
+        List<Period> periods = new ArrayList<>();
+        for (LocalDate start : periodStarts(reportType, from, to)) {
+            periods.add(new Period(reportType, start));
+        }
+        if (periods.size() > maxPeriods) {
+            throw new RuntimeException("Too many periods in one batch: " + periods.size() + " (max " + maxPeriods + ")");
+        }
+        return start(periods, createdBy, false);
+    }
+
+    /** Stores the reports of every period that closed with yesterday. */
+    @Scheduled(cron = "${app.reports.precompute.cron:0 15 0 * * *}")
+    public void closeDay() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        executor.execute(() -> {
+            try {
+                // The lock is released with its transaction once the job is done
+                clusterLockService.runExclusively("reports.close-day", () -> closeDay(day));
+            } catch (RuntimeException e) {
+                System.err.println("❌ Report precompute for " + day + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void closeDay(LocalDate day) {
+        User createdBy = userRepository.findByUsername(precomputeUsername)
+                .orElseThrow(() -> new RuntimeException("User not found: " + precomputeUsername));
+
+        // Daily first: the longer periods are rolled up from it
+        List<Period> periods = new ArrayList<>();
+        for (ReportType reportType : ReportType.values()) {
+            LocalDate start = periodStarts(reportType, day, day).get(0);
+            if (reportType == ReportType.DAILY || nextPeriodStart(reportType, start).equals(day.plusDays(1))) {
+                periods.add(new Period(reportType, start));
+            }
+        }
+        Job job = jobs.get(start(periods, createdBy, true).getJobId());
+        try {
+            job.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized ReportBatchStatusDTO start(List<Period> periods, User createdBy, boolean skipExisting) {
+        for (Job job : jobs.values()) {
+            if (!job.isFinished()) {
+                throw new RuntimeException("A report batch is already running: " + job.id);
+            }
+        }
+
+        List<Long> warehouseIds = warehouseRepository.findAllIds();
+        Job job = new Job(periods, warehouseIds.size());
+        jobs.put(job.id, job);
+        pruneHistory();
+        for (Long warehouseId : warehouseIds) {
+            executor.execute(() -> generateForWarehouse(job, warehouseId, createdBy, skipExisting));
+        }
+        return job.toStatus();
+    }
+
+    private void generateForWarehouse(Job job, Long warehouseId, User createdBy, boolean skipExisting) {
+        try {
+            for (Period period : job.periods) {
+                LocalDateTime start = period.start.atStartOfDay();
+                if (skipExisting && reportService.hasCompleteReport(warehouseId, period.reportType, start)) {
+                    job.reportsSkipped.incrementAndGet();
+                    continue;
+                }
+                generate(period.reportType, warehouseId, start, createdBy);
+                job.reportsGenerated.incrementAndGet();
+            }
+            job.completed.incrementAndGet();
+        } catch (RuntimeException e) {
+            job.failed.incrementAndGet();
+            job.addError("warehouse " + warehouseId + ": " + e.getMessage());
+            System.err.println("❌ Report batch " + job.id + " failed for warehouse " + warehouseId + ": "
+                    + e.getMessage());
+        } finally {
+            job.warehouseDone();
+        }
+    }
+
+    private void generate(ReportType reportType, Long warehouseId, LocalDateTime period, User createdBy) {
+        switch (reportType) {
+            case DAILY -> reportService.generateDailyReport(warehouseId, period, createdBy);
+            case WEEKLY -> reportService.generateWeeklyReport(warehouseId, period, createdBy);
+            case MONTHLY -> reportService.generateMonthlyReport(warehouseId, period, createdBy);
+            case QUARTERLY -> reportService.generateQuarterlyReport(warehouseId, period, createdBy);
+            case YEARLY -> reportService.generateYearlyReport(warehouseId, period, createdBy);
+        }
+    }
+
+    private static List<LocalDate> periodStarts(ReportType reportType, LocalDate from, LocalDate to) {
+        LocalDate start = switch (reportType) {
+            case DAILY -> from;
+            case WEEKLY -> from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> from.withDayOfMonth(1);
+            case QUARTERLY -> from.withMonth((from.getMonthValue() - 1) / 3 * 3 + 1).withDayOfMonth(1);
+            case YEARLY -> from.withDayOfYear(1);
+        };
+        List<LocalDate> periods = new ArrayList<>();
+        for (LocalDate period = start; !period.isAfter(to); period = nextPeriodStart(reportType, period)) {
+            periods.add(period);
+        }
+        return periods;
+    }
+
+    private static LocalDate nextPeriodStart(ReportType reportType, LocalDate start) {
+        return switch (reportType) {
+            case DAILY -> start.plusDays(1);
+            case WEEKLY -> start.plusWeeks(1);
+            case MONTHLY -> start.plusMonths(1);
+            case QUARTERLY -> start.plusMonths(3);
+            case YEARLY -> start.plusYears(1);
+        };
+    }
+
+    public ReportBatchStatusDTO getStatus(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Report batch not found: " + jobId);
+        }
+        return job.toStatus();
+    }
+
+    /** Recent jobs, newest first. */
+    public List<ReportBatchStatusDTO> getRecentJobs() {
+        List<ReportBatchStatusDTO> statuses = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            statuses.add(job.toStatus());
+        }
+        statuses.sort((a, b) -> b.getStartedAt().compareTo(a.getStartedAt()));
+        return statuses;
+    }
+
+    private void pruneHistory() {
+        if (jobs.size() <= history) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(Job::isFinished)
+                .sorted((a, b) -> a.startedAt.compareTo(b.startedAt))
+                .limit(jobs.size() - history)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    private static final class Period {
+        final ReportType reportType;
+        final LocalDate start;
+
+        Period(ReportType reportType, LocalDate start) {
+            this.reportType = reportType;
+            this.start = start;
+        }
+    }
+
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final List<Period> periods;
+        final int totalWarehouses;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startedNanos = System.nanoTime();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger reportsGenerated = new AtomicInteger();
+        final AtomicInteger reportsSkipped = new AtomicInteger();
+        final AtomicInteger remaining;
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile LocalDateTime finishedAt;
+        volatile long elapsedMillis;
+
+        Job(List<Period> periods, int totalWarehouses) {
+            this.periods = periods;
+            this.totalWarehouses = totalWarehouses;
+            this.remaining = new AtomicInteger(totalWarehouses);
+            if (totalWarehouses == 0) {
+                finish();
+            }
+        }
+
+        void addError(String error) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        void warehouseDone() {
+            if (remaining.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+            finishedAt = LocalDateTime.now();
+            done.countDown();
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        ReportBatchStatusDTO toStatus() {
+            LocalDateTime finished = finishedAt;
+            return ReportBatchStatusDTO.builder()
+                    .jobId(id)
+                    .reportTypes(periods.stream().map(period -> period.reportType.name()).distinct().toList())
+                    .firstPeriod(periods.stream().map(period -> period.start).min(LocalDate::compareTo).orElse(null))
+                    .lastPeriod(periods.stream().map(period -> period.start).max(LocalDate::compareTo).orElse(null))
+                    .periods(periods.size())
+                    .totalWarehouses(totalWarehouses)
+                    .completedWarehouses(completed.get())
+                    .failedWarehouses(failed.get())
+                    .reportsGenerated(reportsGenerated.get())
+                    .reportsSkipped(reportsSkipped.get())
+                    .finished(finished != null)
+                    .startedAt(startedAt)
+                    .finishedAt(finished)
+                    .elapsedMillis(finished != null ? elapsedMillis
+                            : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos))
+                    .errors(new ArrayList<>(errors))
+                    .build();
+        }
+    }
+}
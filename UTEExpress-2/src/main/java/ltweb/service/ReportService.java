@@ -6,9 +6,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -20,7 +24,7 @@ public class ReportService {
     private final OutboundReceiptRepository outboundReceiptRepository;
     private final InboundReceiptDetailRepository inboundReceiptDetailRepository;
     private final OutboundReceiptDetailRepository outboundReceiptDetailRepository;
-    private final InventoryRepository inventoryRepository;
+    private final InventorySnapshotService inventorySnapshotService;
 
     public List<WarehouseReport> getAllReports() {
         return warehouseReportRepository.findAll();
@@ -43,6 +47,18 @@ public class ReportService {
         return warehouseReportRepository.findByWarehouseIdAndDateRange(warehouseId, startDate, endDate);
     }
 
+    /**
+     * Builds and stores a report. Periods longer than a day are rolled up from
+     * the stored daily reports when every day of the period has a complete one;
+     * otherwise, and for daily reports, figures come from the receipts, with the
+     * opening stock carried forward from the complete report of the same type
+     * that ends right before this one, or else taken from the inventory snapshots.
+     * <p>
+     * Receipts count towards a report when dated after {@code startDate} and no
+     * later than the second {@code endDate} falls in, so consecutive periods
+     * (a day ends at 23:59:59) neither overlap nor leave a gap, and the opening
+     * stock is the stock at {@code startDate}.
+     */
     @Transactional
     public WarehouseReport generateReport(Long warehouseId, ReportType reportType, 
                                          LocalDateTime startDate, LocalDateTime endDate, 
@@ -50,46 +66,126 @@ public class ReportService {
         Warehouse warehouse = warehouseRepository.findById(warehouseId)
                 .orElseThrow(() -> new RuntimeException("Warehouse not found"));
 
-        Integer openingStock = calculateOpeningStock(warehouseId, startDate);
-        
-        List<InboundReceipt> inboundReceipts = inboundReceiptRepository
-                .findByWarehouseIdAndDateRange(warehouseId, startDate, endDate);
-        
-        List<OutboundReceipt> outboundReceipts = outboundReceiptRepository
-                .findByWarehouseIdAndDateRange(warehouseId, startDate, endDate);
-        
-        Integer totalInboundQuantity = calculateTotalInboundQuantity(inboundReceipts);
-        Integer totalOutboundQuantity = calculateTotalOutboundQuantity(outboundReceipts);
-        
-        Integer closingStock = openingStock + totalInboundQuantity - totalOutboundQuantity;
+        WarehouseReport report = reportType != ReportType.DAILY
+                ? rollUpDailyReports(warehouseId, startDate, endDate)
+                : null;
+        if (report == null) {
+            report = computeFromReceipts(warehouseId, reportType, startDate, endDate);
+        }
         
+        Integer closingStock = report.getClosingStock();
         Double utilizationRate = warehouse.getTotalCapacity() != null && warehouse.getTotalCapacity() > 0
                 ? (closingStock.doubleValue() / warehouse.getTotalCapacity()) * 100
                 : 0.0;
 
-        WarehouseReport report = WarehouseReport.builder()
-                .warehouse(warehouse)
-                .reportType(reportType)
-                .startDate(startDate)
-                .endDate(endDate)
-                .totalInboundReceipts(inboundReceipts.size())
-                .totalOutboundReceipts(outboundReceipts.size())
+        report.setWarehouse(warehouse);
+        report.setReportType(reportType);
+        report.setStartDate(startDate);
+        report.setEndDate(endDate);
+        report.setUtilizationRate(utilizationRate);
+        report.setCreatedBy(createdBy);
+        report.setNotes(notes);
+
+        return warehouseReportRepository.save(report);
+    }
+
+    private WarehouseReport computeFromReceipts(Long warehouseId, ReportType reportType,
+                                               LocalDateTime startDate, LocalDateTime endDate) {
+        Integer openingStock = warehouseReportRepository
+                .findFirstByWarehouseIdAndReportTypeAndEndDateBetweenOrderByCreatedAtDesc(warehouseId, reportType,
+                        startDate.minusSeconds(1), startDate.minusNanos(1))
+                .filter(ReportService::isComplete)
+                .map(WarehouseReport::getClosingStock)
+                .orElseGet(() -> calculateOpeningStock(warehouseId, startDate));
+        LocalDateTime until = periodEnd(endDate);
+        
+        // Counts and quantities are aggregated in the database, a fixed number of queries per report
+        long totalInboundReceipts = inboundReceiptRepository
+                .countByWarehouseIdAndReceivedDateGreaterThanAndReceivedDateLessThanEqual(warehouseId, startDate, until);
+        long totalOutboundReceipts = outboundReceiptRepository
+                .countByWarehouseIdAndIssuedDateGreaterThanAndIssuedDateLessThanEqual(warehouseId, startDate, until);
+        
+        Integer totalInboundQuantity = inboundReceiptDetailRepository
+                .sumQuantityByWarehouseIdAndReceivedDateInterval(warehouseId, startDate, until).intValue();
+        Integer totalOutboundQuantity = outboundReceiptDetailRepository
+                .sumQuantityByWarehouseIdAndIssuedDateInterval(warehouseId, startDate, until).intValue();
+        
+        return WarehouseReport.builder()
+                .totalInboundReceipts((int) totalInboundReceipts)
+                .totalOutboundReceipts((int) totalOutboundReceipts)
                 .totalInboundQuantity(totalInboundQuantity)
                 .totalOutboundQuantity(totalOutboundQuantity)
                 .openingStock(openingStock)
-                .closingStock(closingStock)
-                .utilizationRate(utilizationRate)
-                .createdBy(createdBy)
-                .notes(notes)
+                .closingStock(openingStock + totalInboundQuantity - totalOutboundQuantity)
                 .build();
+    }
 
-        return warehouseReportRepository.save(report);
+    /**
+     * Sums the stored daily reports of a whole-day range, or returns null when
+     * the range does not cover whole days or some day has no complete daily report.
+     */
+    private WarehouseReport rollUpDailyReports(Long warehouseId, LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDate firstDay = startDate.toLocalDate();
+        LocalDate lastDay = endDate.toLocalDate();
+        if (!startDate.equals(firstDay.atStartOfDay()) || !endDate.equals(lastDay.atTime(23, 59, 59))) {
+            return null;
+        }
+
+        // Newest first within a day, so a regenerated daily report wins
+        Map<LocalDate, WarehouseReport> dailyReports = new LinkedHashMap<>();
+        for (WarehouseReport daily : warehouseReportRepository
+                .findByWarehouseIdAndReportTypeAndStartDateBetweenOrderByStartDateAscCreatedAtDesc(warehouseId,
+                        ReportType.DAILY, startDate, endDate)) {
+            dailyReports.putIfAbsent(daily.getStartDate().toLocalDate(), daily);
+        }
+        if (dailyReports.size() != ChronoUnit.DAYS.between(firstDay, lastDay) + 1
+                || !dailyReports.values().stream().allMatch(ReportService::isComplete)) {
+            return null;
+        }
+
+        int inboundReceipts = 0;
+        int outboundReceipts = 0;
+        int inboundQuantity = 0;
+        int outboundQuantity = 0;
+        for (WarehouseReport daily : dailyReports.values()) {
+            inboundReceipts += daily.getTotalInboundReceipts();
+            outboundReceipts += daily.getTotalOutboundReceipts();
+            inboundQuantity += daily.getTotalInboundQuantity();
+            outboundQuantity += daily.getTotalOutboundQuantity();
+        }
+        return WarehouseReport.builder()
+                .totalInboundReceipts(inboundReceipts)
+                .totalOutboundReceipts(outboundReceipts)
+                .totalInboundQuantity(inboundQuantity)
+                .totalOutboundQuantity(outboundQuantity)
+                .openingStock(dailyReports.get(firstDay).getOpeningStock())
+                .closingStock(dailyReports.get(lastDay).getClosingStock())
+                .build();
+    }
+
+    /** Whether the newest report of the period was generated after the period closed. */
+    public boolean hasCompleteReport(Long warehouseId, ReportType reportType, LocalDateTime startDate) {
+        return warehouseReportRepository
+                .findFirstByWarehouseIdAndReportTypeAndStartDateOrderByCreatedAtDesc(warehouseId, reportType,
+                        startDate)
+                .filter(ReportService::isComplete)
+                .isPresent();
+    }
+
+    // A report generated before its period ended is missing whatever came in afterwards
+    private static boolean isComplete(WarehouseReport report) {
+        return report.getCreatedAt() != null && !report.getCreatedAt().isBefore(periodEnd(report.getEndDate()));
+    }
+
+    // End dates are stored as the last second covered, e.g. 23:59:59 for a day
+    private static LocalDateTime periodEnd(LocalDateTime endDate) {
+        return endDate.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
     }
 
     @Transactional
     public WarehouseReport generateDailyReport(Long warehouseId, LocalDateTime date, User createdBy) {
-        LocalDateTime startOfDay = date.withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endOfDay = date.withHour(23).withMinute(59).withSecond(59);
+        LocalDateTime startOfDay = date.withHour(0).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime endOfDay = date.withHour(23).withMinute(59).withSecond(59).withNano(0);
         
         return generateReport(warehouseId, ReportType.DAILY, startOfDay, endOfDay, 
                 createdBy, "Daily report for " + date.toLocalDate());
@@ -98,8 +194,8 @@ public class ReportService {
     @Transactional
     public WarehouseReport generateWeeklyReport(Long warehouseId, LocalDateTime weekStart, User createdBy) {
         LocalDateTime startOfWeek = weekStart.with(TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY))
-                .withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endOfWeek = startOfWeek.plusDays(6).withHour(23).withMinute(59).withSecond(59);
+                .withHour(0).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime endOfWeek = startOfWeek.plusDays(6).withHour(23).withMinute(59).withSecond(59).withNano(0);
         
         return generateReport(warehouseId, ReportType.WEEKLY, startOfWeek, endOfWeek, 
                 createdBy, "Weekly report");
@@ -108,9 +204,9 @@ public class ReportService {
     @Transactional
     public WarehouseReport generateMonthlyReport(Long warehouseId, LocalDateTime month, User createdBy) {
         LocalDateTime startOfMonth = month.with(TemporalAdjusters.firstDayOfMonth())
-                .withHour(0).withMinute(0).withSecond(0);
+                .withHour(0).withMinute(0).withSecond(0).withNano(0);
         LocalDateTime endOfMonth = month.with(TemporalAdjusters.lastDayOfMonth())
-                .withHour(23).withMinute(59).withSecond(59);
+                .withHour(23).withMinute(59).withSecond(59).withNano(0);
         
         return generateReport(warehouseId, ReportType.MONTHLY, startOfMonth, endOfMonth, 
                 createdBy, "Monthly report for " + month.getMonth() + " " + month.getYear());
@@ -121,10 +217,10 @@ public class ReportService {
         int quarterNumber = (quarter.getMonthValue() - 1) / 3 + 1;
         LocalDateTime startOfQuarter = quarter.withMonth((quarterNumber - 1) * 3 + 1)
                 .with(TemporalAdjusters.firstDayOfMonth())
-                .withHour(0).withMinute(0).withSecond(0);
+                .withHour(0).withMinute(0).withSecond(0).withNano(0);
         LocalDateTime endOfQuarter = startOfQuarter.plusMonths(2)
                 .with(TemporalAdjusters.lastDayOfMonth())
-                .withHour(23).withMinute(59).withSecond(59);
+                .withHour(23).withMinute(59).withSecond(59).withNano(0);
         
         return generateReport(warehouseId, ReportType.QUARTERLY, startOfQuarter, endOfQuarter, 
                 createdBy, "Quarterly report Q" + quarterNumber + " " + quarter.getYear());
@@ -133,50 +229,16 @@ public class ReportService {
     @Transactional
     public WarehouseReport generateYearlyReport(Long warehouseId, LocalDateTime year, User createdBy) {
         LocalDateTime startOfYear = year.with(TemporalAdjusters.firstDayOfYear())
-                .withHour(0).withMinute(0).withSecond(0);
+                .withHour(0).withMinute(0).withSecond(0).withNano(0);
         LocalDateTime endOfYear = year.with(TemporalAdjusters.lastDayOfYear())
-                .withHour(23).withMinute(59).withSecond(59);
+                .withHour(23).withMinute(59).withSecond(59).withNano(0);
         
         return generateReport(warehouseId, ReportType.YEARLY, startOfYear, endOfYear, 
                 createdBy, "Yearly report for " + year.getYear());
     }
 
     private Integer calculateOpeningStock(Long warehouseId, LocalDateTime startDate) {
-        Integer totalStock = inventoryRepository.getTotalRemainingQuantityByWarehouseId(warehouseId);
-        
-        List<InboundReceipt> inboundAfterStart = inboundReceiptRepository
-                .findByWarehouseIdAndReceivedDateAfter(warehouseId, startDate);
-        List<OutboundReceipt> outboundAfterStart = outboundReceiptRepository
-                .findByWarehouseIdAndIssuedDateAfter(warehouseId, startDate);
-        
-        Integer inboundAfter = calculateTotalInboundQuantity(inboundAfterStart);
-        Integer outboundAfter = calculateTotalOutboundQuantity(outboundAfterStart);
-        
-        return (totalStock != null ? totalStock : 0) - inboundAfter + outboundAfter;
-    }
-
-    private Integer calculateTotalInboundQuantity(List<InboundReceipt> receipts) {
-        int total = 0;
-        for (InboundReceipt receipt : receipts) {
-            List<InboundReceiptDetail> details = inboundReceiptDetailRepository
-                    .findByInboundReceiptId(receipt.getId());
-            for (InboundReceiptDetail detail : details) {
-                total += detail.getQuantity();
-            }
-        }
-        return total;
-    }
-
-    private Integer calculateTotalOutboundQuantity(List<OutboundReceipt> receipts) {
-        int total = 0;
-        for (OutboundReceipt receipt : receipts) {
-            List<OutboundReceiptDetail> details = outboundReceiptDetailRepository
-                    .findByOutboundReceiptId(receipt.getId());
-            for (OutboundReceiptDetail detail : details) {
-                total += detail.getQuantity();
-            }
-        }
-        return total;
+        return inventorySnapshotService.getStockAt(warehouseId, startDate);
     }
 
     @Transactional
@@ -1,12 +1,19 @@
 package ltweb.service;
 
 import ltweb.entity.*;
+import ltweb.event.RouteChangedEvent;
 import ltweb.repository.RouteRepository;
+import ltweb.util.ExpiringCache;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -14,62 +21,153 @@ public class RouteCalculationService {
 
 	private final RouteRepository routeRepository;
 
-	public List<RouteSegment> calculateRoute(Warehouse fromWarehouse, Warehouse toWarehouse) {
-		List<RouteSegment> segments = new ArrayList<>();
+	@Value("${app.routing.weight:DISTANCE}")
+	private RouteGraph.Weight routeWeight;
+
+	@Value("${app.routing.mode:TABLE}")
+	private RoutingMode routingMode;
+
+	@Value("${app.routing.cache.max-size:10000}")
+	private int routeCacheMaxSize;
+
+	@Value("${app.routing.cache.ttl-seconds:600}")
+	private long routeCacheTtlSeconds;
 
+	private ExpiringCache<RouteKey, List<RouteSegment>> routeCache;
+
+	private volatile RouteGraph routeGraph;
+	private volatile RouteTable routeTable;
+	// Table from before the last route change, updated on the next lookup
+	private RouteTable staleRouteTable;
+	private final AtomicLong routeVersion = new AtomicLong();
+
+	@PostConstruct
+	void initRouteCache() {
+		routeCache = new ExpiringCache<>(routeCacheMaxSize, routeCacheTtlSeconds * 1000);
+	}
+
+	public List<RouteSegment> calculateRoute(Warehouse fromWarehouse, Warehouse toWarehouse) {
 		if (fromWarehouse.getId().equals(toWarehouse.getId())) {
-			return segments;
+			return new ArrayList<>();
 		}
 
-		Route directRoute = routeRepository
-				.findByFromWarehouseIdAndToWarehouseId(fromWarehouse.getId(), toWarehouse.getId()).orElse(null);
+		RouteKey key = new RouteKey(fromWarehouse.getId(), toWarehouse.getId());
+		List<RouteSegment> cached = routeCache.get(key);
+		if (cached != null) {
+			return cached;
+		}
 
-		if (directRoute != null) {
-			segments.add(new RouteSegment(fromWarehouse, toWarehouse, directRoute.getPreferredShipper(),
-					directRoute.getDistanceKm(), directRoute.getEstimatedHours(), true));
-		} else {
-			List<Warehouse> intermediateWarehouses = findIntermediateWarehouses(fromWarehouse, toWarehouse);
+		long version = routeVersion.get();
+		List<RouteSegment> segments = List.copyOf(findRoute(fromWarehouse, toWarehouse));
+		// Skip caching when a route changed while this one was being computed
+		if (version == routeVersion.get()) {
+			routeCache.put(key, segments);
+		}
+		return segments;
+	}
 
-			Warehouse current = fromWarehouse;
-			for (int i = 0; i <= intermediateWarehouses.size(); i++) {
-				Warehouse next = (i < intermediateWarehouses.size()) ? intermediateWarehouses.get(i) : toWarehouse;
+	public Map<String, Object> getRouteCacheStats() {
+		return routeCache.getStats();
+	}
 
-				Route route = routeRepository.findByFromWarehouseIdAndToWarehouseId(current.getId(), next.getId())
-						.orElse(null);
+	private List<RouteSegment> findRoute(Warehouse fromWarehouse, Warehouse toWarehouse) {
+		List<RouteSegment> segments = new ArrayList<>();
 
-				if (route != null) {
-					segments.add(new RouteSegment(current, next, route.getPreferredShipper(), route.getDistanceKm(),
-							route.getEstimatedHours(), i == intermediateWarehouses.size()));
-					current = next;
-				}
-			}
+		RouteTable table = routingMode == RoutingMode.TABLE ? getRouteTable() : null;
+		RouteGraph graph = table != null ? table.getGraph() : getRouteGraph();
+		int source = graph.indexOf(fromWarehouse.getId());
+		int target = graph.indexOf(toWarehouse.getId());
+		if (source < 0 || target < 0) {
+			return segments;
+		}
+
+		int[] path = table != null ? table.path(source, target) : graph.shortestPath(source, target);
+		if (path == null) {
+			return segments;
+		}
+
+		for (int i = 0; i < path.length; i++) {
+			Route route = graph.edgeRoute(path[i]);
+			segments.add(new RouteSegment(route.getFromWarehouse(), route.getToWarehouse(),
+					route.getPreferredShipper(), route.getDistanceKm(), route.getEstimatedHours(),
+					i == path.length - 1));
 		}
 
 		return segments;
 	}
 
-	private List<Warehouse> findIntermediateWarehouses(Warehouse from, Warehouse to) {
-		List<Warehouse> path = new ArrayList<>();
+	public RouteGraph getRouteGraph() {
+		RouteGraph graph = routeGraph;
+		if (graph != null) {
+			return graph;
+		}
+		synchronized (this) {
+			if (routeGraph != null) {
+				return routeGraph;
+			}
+			long version = routeVersion.get();
+			graph = RouteGraph.build(routeRepository.findByIsActiveTrue(), routeWeight);
+			// A route changed while loading: serve this snapshot but rebuild on the next call
+			if (version == routeVersion.get()) {
+				routeGraph = graph;
+			}
+			return graph;
+		}
+	}
 
-		String fromCode = from.getCode();
-		String toCode = to.getCode();
+	public RouteTable getRouteTable() {
+		RouteTable table = routeTable;
+		if (table != null) {
+			return table;
+		}
+		synchronized (this) {
+			if (routeTable != null) {
+				return routeTable;
+			}
+			long version = routeVersion.get();
+			RouteGraph graph = getRouteGraph();
+			// Only the rows affected by the changed pairs are recomputed
+			table = staleRouteTable != null ? staleRouteTable.update(graph) : RouteTable.build(graph);
+			if (version == routeVersion.get()) {
+				routeTable = table;
+				staleRouteTable = null;
+			}
+			return table;
+		}
+	}
 
-		if ((fromCode.equals("WH-HN") && toCode.equals("WH-HCM"))
-				|| (fromCode.equals("WH-HCM") && toCode.equals("WH-HN"))) {
-			return path;
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRouteChanged(RouteChangedEvent event) {
+		// Only invalidate here; the next lookup reloads the graph off this listener
+		synchronized (this) {
+			if (routeTable != null) {
+				staleRouteTable = routeTable;
+				routeTable = null;
+			}
+			routeGraph = null;
 		}
+		routeVersion.incrementAndGet();
+		routeCache.clear();
+	}
+
+	private record RouteKey(Long fromWarehouseId, Long toWarehouseId) {
+	}
 
-		return path;
+	public enum RoutingMode {
+		// Dijkstra per lookup on the in-memory graph
+		GRAPH,
+		// Precomputed all-pairs table, O(path length) per lookup
+		TABLE
 	}
 
-	@lombok.Data
-	@lombok.AllArgsConstructor
+	/** Immutable, so cached routes can be handed to every caller. */
+	@lombok.Value
 	public static class RouteSegment {
-		private Warehouse fromWarehouse;
-		private Warehouse toWarehouse;
-		private Shipper preferredShipper;
-		private Double distanceKm;
-		private Double estimatedHours;
-		private Boolean isFinalLeg;
+		Warehouse fromWarehouse;
+		Warehouse toWarehouse;
+		Shipper preferredShipper;
+		Double distanceKm;
+		Double estimatedHours;
+		Boolean isFinalLeg;
 	}
-}
\ No newline at end of file
+}
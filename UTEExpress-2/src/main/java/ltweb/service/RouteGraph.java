@@ -0,0 +1,305 @@
+package ltweb.service;
+
+import ltweb.entity.Route;
+import ltweb.entity.Warehouse;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the active warehouse network. Nodes are warehouses,
+ * edges are active {@link Route} rows stored in compressed adjacency arrays so
+ * that shortest-path searches never touch the database.
+ */
+public final class RouteGraph {
+
+	public enum Weight {
+		DISTANCE, TIME
+	}
+
+	private final Map<Long, Integer> nodeIndex;
+	private final Warehouse[] nodes;
+
+	// Outgoing edges of node n are edgeStart[n] .. edgeStart[n + 1] - 1
+	private final int[] edgeStart;
+	private final int[] edgeFrom;
+	private final int[] edgeTo;
+	private final double[] edgeWeight;
+	private final Route[] edgeRoute;
+
+	private RouteGraph(Map<Long, Integer> nodeIndex, Warehouse[] nodes, int[] edgeStart, int[] edgeFrom,
+			int[] edgeTo, double[] edgeWeight, Route[] edgeRoute) {
+		this.nodeIndex = nodeIndex;
+		this.nodes = nodes;
+		this.edgeStart = edgeStart;
+		this.edgeFrom = edgeFrom;
+		this.edgeTo = edgeTo;
+		this.edgeWeight = edgeWeight;
+		this.edgeRoute = edgeRoute;
+	}
+
+	public static RouteGraph build(List<Route> routes, Weight weight) {
+		// Keep only the cheapest active route per (from, to) pair. Sorted maps give
+		// node indices in warehouse-id order, stable across rebuilds of the same
+		// node set, and adjacency lists sorted by target for edgeBetween.
+		TreeMap<Long, Warehouse> warehouses = new TreeMap<>();
+		Map<Long, TreeMap<Long, Route>> best = new HashMap<>();
+		for (Route route : routes) {
+			if (!Boolean.TRUE.equals(route.getIsActive()) || Double.isNaN(weightOf(route, weight))) {
+				continue;
+			}
+			Warehouse from = route.getFromWarehouse();
+			Warehouse to = route.getToWarehouse();
+			if (from.getId().equals(to.getId())) {
+				continue;
+			}
+			warehouses.putIfAbsent(from.getId(), from);
+			warehouses.putIfAbsent(to.getId(), to);
+			best.computeIfAbsent(from.getId(), k -> new TreeMap<>()).merge(to.getId(), route,
+					(a, b) -> weightOf(a, weight) <= weightOf(b, weight) ? a : b);
+		}
+
+		int n = warehouses.size();
+		Map<Long, Integer> nodeIndex = new HashMap<>();
+		Warehouse[] nodes = warehouses.values().toArray(new Warehouse[n]);
+		for (int i = 0; i < n; i++) {
+			nodeIndex.put(nodes[i].getId(), i);
+		}
+
+		int[] edgeStart = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			Map<Long, Route> outgoing = best.get(nodes[i].getId());
+			edgeStart[i + 1] = edgeStart[i] + (outgoing != null ? outgoing.size() : 0);
+		}
+
+		int m = edgeStart[n];
+		int[] edgeFrom = new int[m];
+		int[] edgeTo = new int[m];
+		double[] edgeWeight = new double[m];
+		Route[] edgeRoute = new Route[m];
+		for (int i = 0; i < n; i++) {
+			Map<Long, Route> outgoing = best.get(nodes[i].getId());
+			if (outgoing == null) {
+				continue;
+			}
+			int e = edgeStart[i];
+			for (Route route : outgoing.values()) {
+				edgeFrom[e] = i;
+				edgeTo[e] = nodeIndex.get(route.getToWarehouse().getId());
+				edgeWeight[e] = weightOf(route, weight);
+				edgeRoute[e] = route;
+				e++;
+			}
+		}
+
+		return new RouteGraph(nodeIndex, nodes, edgeStart, edgeFrom, edgeTo, edgeWeight, edgeRoute);
+	}
+
+	private static double weightOf(Route route, Weight weight) {
+		Double primary = weight == Weight.TIME ? route.getEstimatedHours() : route.getDistanceKm();
+		Double fallback = weight == Weight.TIME ? route.getDistanceKm() : route.getEstimatedHours();
+		if (primary != null && primary >= 0) {
+			return primary;
+		}
+		return fallback != null && fallback >= 0 ? fallback : Double.NaN;
+	}
+
+	public int size() {
+		return nodes.length;
+	}
+
+	public int edgeCount() {
+		return edgeRoute.length;
+	}
+
+	/** @return node index of the warehouse, or -1 when it has no active route */
+	public int indexOf(Long warehouseId) {
+		Integer index = nodeIndex.get(warehouseId);
+		return index != null ? index : -1;
+	}
+
+	public Warehouse warehouse(int node) {
+		return nodes[node];
+	}
+
+	public int edgeFrom(int edge) {
+		return edgeFrom[edge];
+	}
+
+	public int edgeTo(int edge) {
+		return edgeTo[edge];
+	}
+
+	public double edgeWeight(int edge) {
+		return edgeWeight[edge];
+	}
+
+	public Route edgeRoute(int edge) {
+		return edgeRoute[edge];
+	}
+
+	/** @return the edge from {@code from} to {@code to}, or -1 when there is none */
+	public int edgeBetween(int from, int to) {
+		int low = edgeStart[from];
+		int high = edgeStart[from + 1] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (edgeTo[mid] < to) {
+				low = mid + 1;
+			} else if (edgeTo[mid] > to) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/** @return true when both graphs index exactly the same warehouses */
+	public boolean hasSameNodes(RouteGraph other) {
+		if (other.nodes.length != nodes.length) {
+			return false;
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			if (!nodes[i].getId().equals(other.nodes[i].getId())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Dijkstra search from {@code source} that stops as soon as {@code target} is
+	 * settled.
+	 *
+	 * @return edge indices from source to target, or null when unreachable
+	 */
+	public int[] shortestPath(int source, int target) {
+		double[] dist = new double[nodes.length];
+		int[] predEdge = new int[nodes.length];
+		search(source, target, dist, predEdge);
+		if (predEdge[target] < 0) {
+			return null;
+		}
+		return pathTo(target, predEdge);
+	}
+
+	/**
+	 * Full single-source Dijkstra. {@code dist} receives the path cost to every
+	 * node (infinity when unreachable) and {@code predEdge} the last edge on that
+	 * path (-1 for the source and unreachable nodes).
+	 */
+	public void shortestPathTree(int source, double[] dist, int[] predEdge) {
+		search(source, -1, dist, predEdge);
+	}
+
+	/** Walks a predecessor row back from {@code target}, returning edges in travel order. */
+	public int[] pathTo(int target, int[] predEdge) {
+		int hops = 0;
+		for (int node = target; predEdge[node] >= 0; node = edgeFrom[predEdge[node]]) {
+			hops++;
+		}
+		int[] path = new int[hops];
+		for (int node = target; predEdge[node] >= 0; node = edgeFrom[predEdge[node]]) {
+			path[--hops] = predEdge[node];
+		}
+		return path;
+	}
+
+	private void search(int source, int target, double[] dist, int[] predEdge) {
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		Arrays.fill(predEdge, -1);
+		boolean[] settled = new boolean[nodes.length];
+		MinHeap heap = new MinHeap(nodes.length);
+
+		dist[source] = 0;
+		heap.push(0, source);
+		while (!heap.isEmpty()) {
+			double d = heap.peekKey();
+			int node = heap.pop();
+			if (settled[node]) {
+				continue;
+			}
+			settled[node] = true;
+			if (node == target) {
+				return;
+			}
+			for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+				int next = edgeTo[e];
+				double candidate = d + edgeWeight[e];
+				if (candidate < dist[next]) {
+					dist[next] = candidate;
+					predEdge[next] = e;
+					heap.push(candidate, next);
+				}
+			}
+		}
+	}
+
+	/** Binary min-heap on primitive arrays; stale entries are skipped by the caller. */
+	private static final class MinHeap {
+		private double[] keys;
+		private int[] values;
+		private int size;
+
+		MinHeap(int capacity) {
+			keys = new double[Math.max(capacity, 4)];
+			values = new int[keys.length];
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		double peekKey() {
+			return keys[0];
+		}
+
+		void push(double key, int value) {
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+			}
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (keys[parent] <= key) {
+					break;
+				}
+				keys[i] = keys[parent];
+				values[i] = values[parent];
+				i = parent;
+			}
+			keys[i] = key;
+			values[i] = value;
+		}
+
+		int pop() {
+			int top = values[0];
+			double key = keys[--size];
+			int value = values[size];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && keys[child + 1] < keys[child]) {
+					child++;
+				}
+				if (keys[child] >= key) {
+					break;
+				}
+				keys[i] = keys[child];
+				values[i] = values[child];
+				i = child;
+			}
+			keys[i] = key;
+			values[i] = value;
+			return top;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package ltweb.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All-pairs shortest paths over a {@link RouteGraph}, stored as two flat n x n
+ * matrices: path cost and predecessor node. A path lookup walks the
+ * predecessor row, so it costs O(path length) and allocates only the result.
+ * Instances are immutable; {@link #update} returns a new table.
+ */
+public final class RouteTable {
+
+	private final RouteGraph graph;
+	private final int n;
+	private final double[] dist;
+	private final int[] predNode;
+
+	private RouteTable(RouteGraph graph, double[] dist, int[] predNode) {
+		this.graph = graph;
+		this.n = graph.size();
+		this.dist = dist;
+		this.predNode = predNode;
+	}
+
+	public static RouteTable build(RouteGraph graph) {
+		int n = graph.size();
+		double[] dist = new double[n * n];
+		int[] predNode = new int[n * n];
+		RowBuffer buffer = new RowBuffer(n);
+		for (int source = 0; source < n; source++) {
+			computeRow(graph, source, dist, predNode, buffer);
+		}
+		return new RouteTable(graph, dist, predNode);
+	}
+
+	/**
+	 * Moves the table to {@code newGraph}. The two graphs are diffed edge by
+	 * edge, so a route whose endpoints moved counts as a removed and an added
+	 * pair. Only source rows whose shortest-path tree used a changed pair, or
+	 * which a changed pair improves, are recomputed; a change in the set of
+	 * warehouses falls back to a full rebuild.
+	 */
+	public RouteTable update(RouteGraph newGraph) {
+		if (!graph.hasSameNodes(newGraph)) {
+			return build(newGraph);
+		}
+
+		List<int[]> changed = changedPairs(graph, newGraph);
+		if (changed.isEmpty()) {
+			return new RouteTable(newGraph, dist, predNode);
+		}
+
+		double[] newDist = dist.clone();
+		int[] newPredNode = predNode.clone();
+		RowBuffer buffer = new RowBuffer(n);
+		for (int source = 0; source < n; source++) {
+			if (isAffected(newGraph, source, changed)) {
+				computeRow(newGraph, source, newDist, newPredNode, buffer);
+			}
+		}
+		return new RouteTable(newGraph, newDist, newPredNode);
+	}
+
+	private boolean isAffected(RouteGraph newGraph, int source, List<int[]> changed) {
+		int row = source * n;
+		for (int[] pair : changed) {
+			int u = pair[0];
+			int v = pair[1];
+			int edge = newGraph.edgeBetween(u, v);
+			double weight = edge >= 0 ? newGraph.edgeWeight(edge) : Double.POSITIVE_INFINITY;
+			if (predNode[row + v] == u || dist[row + u] + weight < dist[row + v]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** (from, to) node pairs whose edge was added, removed or reweighted; both graphs share node indices. */
+	private static List<int[]> changedPairs(RouteGraph oldGraph, RouteGraph newGraph) {
+		List<int[]> changed = new ArrayList<>();
+		for (int e = 0; e < oldGraph.edgeCount(); e++) {
+			int u = oldGraph.edgeFrom(e);
+			int v = oldGraph.edgeTo(e);
+			int edge = newGraph.edgeBetween(u, v);
+			if (edge < 0 || newGraph.edgeWeight(edge) != oldGraph.edgeWeight(e)) {
+				changed.add(new int[] { u, v });
+			}
+		}
+		for (int e = 0; e < newGraph.edgeCount(); e++) {
+			int u = newGraph.edgeFrom(e);
+			int v = newGraph.edgeTo(e);
+			if (oldGraph.edgeBetween(u, v) < 0) {
+				changed.add(new int[] { u, v });
+			}
+		}
+		return changed;
+	}
+
+	public RouteGraph getGraph() {
+		return graph;
+	}
+
+	/** @return edge indices of {@link #getGraph()} from source to target, or null when unreachable */
+	public int[] path(int source, int target) {
+		int row = source * n;
+		if (dist[row + target] == Double.POSITIVE_INFINITY) {
+			return null;
+		}
+
+		int hops = 0;
+		for (int node = target; node != source; node = predNode[row + node]) {
+			hops++;
+		}
+		int[] path = new int[hops];
+		for (int node = target; node != source; node = predNode[row + node]) {
+			path[--hops] = graph.edgeBetween(predNode[row + node], node);
+		}
+		return path;
+	}
+
+	private static void computeRow(RouteGraph graph, int source, double[] dist, int[] predNode, RowBuffer buffer) {
+		int n = graph.size();
+		graph.shortestPathTree(source, buffer.dist, buffer.predEdge);
+		int row = source * n;
+		System.arraycopy(buffer.dist, 0, dist, row, n);
+		for (int node = 0; node < n; node++) {
+			int edge = buffer.predEdge[node];
+			predNode[row + node] = edge >= 0 ? graph.edgeFrom(edge) : -1;
+		}
+	}
+
+	private static final class RowBuffer {
+		final double[] dist;
+		final int[] predEdge;
+
+		RowBuffer(int n) {
+			dist = new double[n];
+			predEdge = new int[n];
+		}
+	}
+}
@@ -1,34 +1,186 @@
 package ltweb.service;
 
 import ltweb.entity.ServiceType;
+import ltweb.entity.TariffBand;
+import ltweb.entity.TariffDimension;
+import ltweb.event.TariffChangedEvent;
+import ltweb.repository.TariffBandRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
+@RequiredArgsConstructor
 public class ShippingFeeService {
 
-	private static final BigDecimal BASE_FEE = new BigDecimal("20000");
-	private static final BigDecimal PRICE_PER_KM = new BigDecimal("3000");
-	private static final BigDecimal PRICE_PER_KG = new BigDecimal("5000");
+	// Fees are computed in fixed point (see Tariff), so a quote needs no
+	// BigDecimal until the result.
+	private static final long MILLI = Tariff.MILLI;
+	private static final long MICRO = Tariff.MICRO;
 
-	private static final BigDecimal STANDARD_MULTIPLIER = new BigDecimal("1.0");
-	private static final BigDecimal EXPRESS_MULTIPLIER = new BigDecimal("1.5");
-	private static final BigDecimal ECONOMY_MULTIPLIER = new BigDecimal("0.8");
+	// Built-in tariff, used for any service type and dimension without active
+	// rows in tariff_bands
+	private static final long BASE_FEE = 20_000;
+	private static final long PRICE_PER_KM = 3_000;
+	private static final long PRICE_PER_KG = 5_000;
+
+	private static final long STANDARD_MULTIPLIER = 1_000;
+	private static final long EXPRESS_MULTIPLIER = 1_500;
+	private static final long ECONOMY_MULTIPLIER = 800;
+
+	private static final Tariff DEFAULT_TARIFF = Tariff.compile(defaultBands(), null);
+
+	private final TariffBandRepository tariffBandRepository;
+
+	@Value("${app.shipping.quote.max-batch-size:10000}")
+	private int maxBatchSize;
+
+	// Swapped whole on reload; quotes read it once and never lock
+	private volatile Tariff tariff;
+	private volatile LocalDateTime tariffLoadedAt;
 
 	public BigDecimal calculateShippingFee(Double distance, Double weight, ServiceType serviceType) {
-		BigDecimal distanceFee = PRICE_PER_KM.multiply(new BigDecimal(distance));
-		BigDecimal weightFee = PRICE_PER_KG.multiply(new BigDecimal(weight));
+		return BigDecimal.valueOf(calculateShippingFeeVnd(distance, weight, serviceType));
+	}
+
+	/**
+	 * @return the fee in whole VND, rounded half up
+	 * @throws ArithmeticException when distance or weight is too large to price
+	 */
+	public long calculateShippingFeeVnd(double distance, double weight, ServiceType serviceType) {
+		return calculateShippingFeeVnd(getTariff(), distance, weight, serviceType);
+	}
+
+	private static long calculateShippingFeeVnd(Tariff tariff, double distance, double weight,
+			ServiceType serviceType) {
+		long distanceMilli = Math.max(0, Math.round(distance * MILLI));
+		long weightMilli = Math.max(0, Math.round(weight * MILLI));
+
+		long totalMicro = tariff.quoteMicro(distanceMilli, weightMilli, serviceType);
+
+		return Math.floorDiv(Math.addExact(totalMicro, MICRO / 2), MICRO);
+	}
+
+	/**
+	 * Prices a batch of (distance, weight, serviceType) tuples given as parallel
+	 * arrays, writing whole-VND fees and delivery days into the output arrays.
+	 */
+	public void calculateShippingFees(double[] distances, double[] weights, ServiceType[] serviceTypes,
+			long[] fees, int[] deliveryDays) {
+		int count = distances.length;
+		if (weights.length != count || serviceTypes.length != count || fees.length != count
+				|| deliveryDays.length != count) {
+			throw new IllegalArgumentException("distances, weights and serviceTypes must have the same length");
+		}
+		if (count > maxBatchSize) {
+			throw new IllegalArgumentException("Batch size " + count + " exceeds the limit of " + maxBatchSize);
+		}
+
+		// One tariff for the whole batch, even if a reload lands midway
+		Tariff current = getTariff();
+		for (int i = 0; i < count; i++) {
+			double distance = distances[i];
+			double weight = weights[i];
+			if (!(distance >= 0) || !(weight >= 0) || Double.isInfinite(distance) || Double.isInfinite(weight)
+					|| serviceTypes[i] == null) {
+				throw new IllegalArgumentException("Invalid quote at index " + i);
+			}
+			try {
+				fees[i] = calculateShippingFeeVnd(current, distance, weight, serviceTypes[i]);
+			} catch (ArithmeticException e) {
+				throw new IllegalArgumentException("Quote at index " + i + " is out of range");
+			}
+			deliveryDays[i] = getEstimatedDeliveryDays(distance, serviceTypes[i]);
+		}
+	}
 
-		BigDecimal totalFee = BASE_FEE.add(distanceFee).add(weightFee);
+	public Tariff getTariff() {
+		Tariff current = tariff;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (tariff == null) {
+				try {
+					loadTariff();
+				} catch (RuntimeException e) {
+					System.err.println("Không thể tải biểu phí, dùng biểu phí mặc định: " + e.getMessage());
+					tariff = DEFAULT_TARIFF;
+					tariffLoadedAt = LocalDateTime.now();
+				}
+			}
+			return tariff;
+		}
+	}
 
-		BigDecimal multiplier = getServiceTypeMultiplier(serviceType);
-		totalFee = totalFee.multiply(multiplier);
+	/**
+	 * Recompiles the tariff from the active database bands and swaps it in. On
+	 * an invalid configuration the current tariff stays in place.
+	 *
+	 * @throws IllegalArgumentException when the stored bands are invalid
+	 */
+	public synchronized Tariff reloadTariff() {
+		loadTariff();
+		return tariff;
+	}
 
-		return totalFee.setScale(0, RoundingMode.HALF_UP);
+	private void loadTariff() {
+		Tariff compiled = Tariff.compile(tariffBandRepository.findByIsActiveTrue(), DEFAULT_TARIFF);
+		tariff = compiled;
+		tariffLoadedAt = LocalDateTime.now();
 	}
 
-	private BigDecimal getServiceTypeMultiplier(ServiceType serviceType) {
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onTariffChanged(TariffChangedEvent event) {
+		try {
+			reloadTariff();
+		} catch (IllegalArgumentException e) {
+			System.err.println("Biểu phí mới không hợp lệ, giữ biểu phí hiện tại: " + e.getMessage());
+		}
+	}
+
+	public Map<String, Object> getTariffInfo() {
+		Tariff current = getTariff();
+		Map<String, Object> info = new LinkedHashMap<>();
+		info.put("loadedAt", tariffLoadedAt);
+		info.put("bandCount", current.getBandCount());
+		info.put("bands", current.describe());
+		return info;
+	}
+
+	private static List<TariffBand> defaultBands() {
+		List<TariffBand> bands = new ArrayList<>();
+		for (ServiceType serviceType : ServiceType.values()) {
+			BigDecimal multiplier = BigDecimal.valueOf(getServiceTypeMultiplier(serviceType), 3);
+			bands.add(defaultBand(serviceType, TariffDimension.DISTANCE,
+					BigDecimal.valueOf(BASE_FEE).multiply(multiplier),
+					BigDecimal.valueOf(PRICE_PER_KM).multiply(multiplier)));
+			bands.add(defaultBand(serviceType, TariffDimension.WEIGHT, BigDecimal.ZERO,
+					BigDecimal.valueOf(PRICE_PER_KG).multiply(multiplier)));
+		}
+		return bands;
+	}
+
+	private static TariffBand defaultBand(ServiceType serviceType, TariffDimension dimension, BigDecimal baseFee,
+			BigDecimal unitPrice) {
+		return TariffBand.builder()
+				.serviceType(serviceType)
+				.dimension(dimension)
+				.lowerBound(0.0)
+				.baseFee(baseFee)
+				.unitPrice(unitPrice)
+				.isActive(true)
+				.build();
+	}
+
+	private static long getServiceTypeMultiplier(ServiceType serviceType) {
 		switch (serviceType) {
 		case EXPRESS:
 			return EXPRESS_MULTIPLIER;
@@ -41,6 +193,10 @@ public class ShippingFeeService {
 	}
 
 	public int getEstimatedDeliveryDays(Double distance, ServiceType serviceType) {
+		return getEstimatedDeliveryDays(distance.doubleValue(), serviceType);
+	}
+
+	private int getEstimatedDeliveryDays(double distance, ServiceType serviceType) {
 		int baseDays = (int) Math.ceil(distance / 500);
 
 		switch (serviceType) {
@@ -53,4 +209,4 @@ public class ShippingFeeService {
 			return baseDays;
 		}
 	}
-}
\ No newline at end of file
+}
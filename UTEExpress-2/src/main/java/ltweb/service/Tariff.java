@@ -0,0 +1,171 @@
+package ltweb.service;
+
+import ltweb.entity.ServiceType;
+import ltweb.entity.TariffBand;
+import ltweb.entity.TariffDimension;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, precompiled shipping tariff. Every (service type, dimension) pair
+ * holds its bands as sorted primitive arrays in fixed point, so a quote is two
+ * binary searches and a few multiplications with no locking or allocation.
+ */
+public final class Tariff {
+
+	// Quantities are in thousandths of a km/kg, base fees in micro-VND and unit
+	// prices in milli-VND per unit, so price * quantity lands in micro-VND.
+	static final long MILLI = 1_000;
+	static final long MICRO = 1_000_000;
+
+	private static final int DIMENSIONS = TariffDimension.values().length;
+
+	private final long[][] lowerBounds;
+	private final long[][] baseFees;
+	private final long[][] unitPrices;
+	private final int bandCount;
+
+	private Tariff(long[][] lowerBounds, long[][] baseFees, long[][] unitPrices) {
+		this.lowerBounds = lowerBounds;
+		this.baseFees = baseFees;
+		this.unitPrices = unitPrices;
+		int count = 0;
+		for (long[] bounds : lowerBounds) {
+			count += bounds.length;
+		}
+		this.bandCount = count;
+	}
+
+	/**
+	 * Compiles tariff bands. Pairs without any band are taken from
+	 * {@code fallback}; when there is no fallback every pair must be covered.
+	 *
+	 * @throws IllegalArgumentException when a band is invalid or a pair does not
+	 *                                  start at zero
+	 */
+	public static Tariff compile(List<TariffBand> bands, Tariff fallback) {
+		int slots = ServiceType.values().length * DIMENSIONS;
+		List<List<TariffBand>> grouped = new ArrayList<>(slots);
+		for (int i = 0; i < slots; i++) {
+			grouped.add(new ArrayList<>());
+		}
+		for (TariffBand band : bands) {
+			validate(band);
+			grouped.get(slot(band.getServiceType(), band.getDimension())).add(band);
+		}
+
+		long[][] lowerBounds = new long[slots][];
+		long[][] baseFees = new long[slots][];
+		long[][] unitPrices = new long[slots][];
+		for (int slot = 0; slot < slots; slot++) {
+			List<TariffBand> group = grouped.get(slot);
+			if (group.isEmpty()) {
+				if (fallback == null) {
+					throw new IllegalArgumentException("No tariff bands for " + describeSlot(slot));
+				}
+				lowerBounds[slot] = fallback.lowerBounds[slot];
+				baseFees[slot] = fallback.baseFees[slot];
+				unitPrices[slot] = fallback.unitPrices[slot];
+				continue;
+			}
+
+			group.sort(Comparator.comparingDouble(TariffBand::getLowerBound));
+			int n = group.size();
+			lowerBounds[slot] = new long[n];
+			baseFees[slot] = new long[n];
+			unitPrices[slot] = new long[n];
+			for (int i = 0; i < n; i++) {
+				TariffBand band = group.get(i);
+				lowerBounds[slot][i] = Math.round(band.getLowerBound() * MILLI);
+				baseFees[slot][i] = toFixedPoint(band.getBaseFee(), 6);
+				unitPrices[slot][i] = toFixedPoint(band.getUnitPrice(), 3);
+				if (i > 0 && lowerBounds[slot][i] == lowerBounds[slot][i - 1]) {
+					throw new IllegalArgumentException("Duplicate tariff band at " + band.getLowerBound() + " for "
+							+ describeSlot(slot));
+				}
+			}
+			if (lowerBounds[slot][0] != 0) {
+				throw new IllegalArgumentException("Tariff bands for " + describeSlot(slot) + " must start at 0");
+			}
+		}
+		return new Tariff(lowerBounds, baseFees, unitPrices);
+	}
+
+	private static void validate(TariffBand band) {
+		if (band.getServiceType() == null || band.getDimension() == null || band.getLowerBound() == null
+				|| band.getBaseFee() == null || band.getUnitPrice() == null) {
+			throw new IllegalArgumentException("Incomplete tariff band " + band.getId());
+		}
+		double lowerBound = band.getLowerBound();
+		if (!(lowerBound >= 0) || Double.isInfinite(lowerBound) || band.getBaseFee().signum() < 0
+				|| band.getUnitPrice().signum() < 0) {
+			throw new IllegalArgumentException("Invalid tariff band " + band.getId());
+		}
+	}
+
+	private static long toFixedPoint(BigDecimal value, int scale) {
+		return value.movePointRight(scale).setScale(0, RoundingMode.HALF_UP).longValueExact();
+	}
+
+	private static int slot(ServiceType serviceType, TariffDimension dimension) {
+		return serviceType.ordinal() * DIMENSIONS + dimension.ordinal();
+	}
+
+	private static String describeSlot(int slot) {
+		return ServiceType.values()[slot / DIMENSIONS] + "/" + TariffDimension.values()[slot % DIMENSIONS];
+	}
+
+	public int getBandCount() {
+		return bandCount;
+	}
+
+	/**
+	 * @param distanceMilli distance in metres (thousandths of a km), non-negative
+	 * @param weightMilli   weight in grams (thousandths of a kg), non-negative
+	 * @return the fee in micro-VND
+	 * @throws ArithmeticException when the fee does not fit in a long
+	 */
+	public long quoteMicro(long distanceMilli, long weightMilli, ServiceType serviceType) {
+		return Math.addExact(charge(slot(serviceType, TariffDimension.DISTANCE), distanceMilli),
+				charge(slot(serviceType, TariffDimension.WEIGHT), weightMilli));
+	}
+
+	private long charge(int slot, long quantityMilli) {
+		long[] bounds = lowerBounds[slot];
+		int band = Arrays.binarySearch(bounds, quantityMilli);
+		if (band < 0) {
+			// Insertion point minus one: the last band starting below the quantity
+			band = -band - 2;
+		}
+		return Math.addExact(baseFees[slot][band],
+				Math.multiplyExact(unitPrices[slot][band], quantityMilli - bounds[band]));
+	}
+
+	/** Bands in display units, grouped by service type and dimension. */
+	public Map<String, Object> describe() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		for (ServiceType serviceType : ServiceType.values()) {
+			Map<String, Object> dimensions = new LinkedHashMap<>();
+			for (TariffDimension dimension : TariffDimension.values()) {
+				int slot = slot(serviceType, dimension);
+				List<Map<String, Object>> rows = new ArrayList<>();
+				for (int i = 0; i < lowerBounds[slot].length; i++) {
+					rows.add(Map.of(
+							"lowerBound", lowerBounds[slot][i] / (double) MILLI,
+							"baseFee", BigDecimal.valueOf(baseFees[slot][i], 6).stripTrailingZeros(),
+							"unitPrice", BigDecimal.valueOf(unitPrices[slot][i], 3).stripTrailingZeros()));
+				}
+				dimensions.put(dimension.name(), rows);
+			}
+			result.put(serviceType.name(), dimensions);
+		}
+		return result;
+	}
+}
@@ -1,16 +1,22 @@
 package ltweb.service;
 
+import ltweb.dto.TrackingMilestoneDTO;
 import ltweb.entity.NotificationType;
 import ltweb.entity.Order;
 import ltweb.entity.Shipment;
 import ltweb.entity.Tracking;
 import ltweb.entity.TrackingStatus;
+import ltweb.event.TrackingRecordedEvent;
 import ltweb.repository.TrackingRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -18,8 +24,10 @@ import java.util.List;
 public class TrackingService {
 
 	private final TrackingRepository trackingRepository;
-	private final SimpMessagingTemplate messagingTemplate;
+	private final ApplicationEventPublisher eventPublisher;
 	private final NotificationService notificationService;
+	private final JdbcTemplate jdbcTemplate;
+
 	public List<Tracking> getAllTrackings() {
 		return trackingRepository.findAll();
 	}
@@ -45,13 +53,13 @@ public class TrackingService {
 	            .build();
 	    
 	    Tracking savedTracking = trackingRepository.save(tracking);
-	    sendRealtimeTracking(shipment.getId(), savedTracking);
+	    publishRealtimeTracking(shipment.getId(), savedTracking);
 	    
 	    // Thông báo cho customer khi có tracking mới
 	    Order order = shipment.getOrder();
 	    if (order != null && order.getCustomer() != null) {
 	        notificationService.createCustomerNotification(
-	            order.getCustomer().getId(),
+	            order.getCustomer(),
 	            description,
 	            NotificationType.ORDER_ASSIGNED,
 	            order
@@ -61,39 +69,41 @@ public class TrackingService {
 	    return savedTracking;
 	}
 
+	/**
+	 * Records one milestone per entry with a single batched insert. Realtime
+	 * updates and customer notifications go out after the transaction commits,
+	 * as with {@link #createTracking}.
+	 */
 	@Transactional
-	public Tracking updateShipmentLocation(Long shipmentId, Double latitude, Double longitude, String description) {
-		Tracking tracking = Tracking.builder().shipment(Shipment.builder().id(shipmentId).build()).latitude(latitude)
-				.longitude(longitude).description(description != null ? description : "Location updated")
-				.status(TrackingStatus.IN_PROGRESS).build();
-
-		Tracking savedTracking = trackingRepository.save(tracking);
-
-		sendRealtimeTracking(shipmentId, savedTracking);
-
-		return savedTracking;
-	}
-
-	private void sendRealtimeTracking(Long shipmentId, Tracking tracking) {
-		String destination = "/topic/tracking/" + shipmentId;
-		messagingTemplate.convertAndSend(destination, tracking);
-	}
+	public void createTrackings(List<TrackingMilestoneDTO> milestones, Double latitude, Double longitude,
+			TrackingStatus status) {
+		if (milestones.isEmpty()) {
+			return;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		List<Object[]> rows = new ArrayList<>(milestones.size());
+		for (TrackingMilestoneDTO milestone : milestones) {
+			rows.add(new Object[] { milestone.getShipmentId(), latitude, longitude, milestone.getDescription(),
+					status.name(), Timestamp.valueOf(now) });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO trackings (shipment_id, latitude, longitude, description, status, "
+				+ "created_at) VALUES (?, ?, ?, ?, ?, ?)", rows);
 
-	public void broadcastLocationUpdate(Long shipmentId, Double latitude, Double longitude) {
-		String destination = "/topic/tracking/" + shipmentId;
-		TrackingUpdate update = new TrackingUpdate(shipmentId, latitude, longitude);
-		messagingTemplate.convertAndSend(destination, update);
+		for (TrackingMilestoneDTO milestone : milestones) {
+			eventPublisher.publishEvent(new TrackingRecordedEvent(milestone.getShipmentId(), latitude, longitude,
+					status.name(), milestone.getDescription(), now));
+			if (milestone.getCustomerUserId() != null) {
+				notificationService.createNotification(milestone.getCustomerUserId(), "CUSTOMER",
+						milestone.getDescription(), NotificationType.ORDER_ASSIGNED,
+						Order.builder().id(milestone.getOrderId()).orderCode(milestone.getOrderCode()).build());
+			}
+		}
 	}
 
-	private static class TrackingUpdate {
-		public Long shipmentId;
-		public Double latitude;
-		public Double longitude;
-
-		public TrackingUpdate(Long shipmentId, Double latitude, Double longitude) {
-			this.shipmentId = shipmentId;
-			this.latitude = latitude;
-			this.longitude = longitude;
-		}
+	// Subscribers of /topic/tracking/{id} get a delta once the transaction commits
+	private void publishRealtimeTracking(Long shipmentId, Tracking tracking) {
+		eventPublisher.publishEvent(new TrackingRecordedEvent(shipmentId, tracking.getLatitude(),
+				tracking.getLongitude(), tracking.getStatus().name(), tracking.getDescription(),
+				tracking.getCreatedAt()));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package ltweb.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import ltweb.dto.LocationUpdateDTO;
+import ltweb.dto.TrackingEventDTO;
+import ltweb.entity.Tracking;
+import ltweb.event.TrackingRecordedEvent;
+import ltweb.repository.TrackingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versioned state stream behind /topic/tracking/{shipmentId}. Live positions
+ * and milestones are folded into a per-shipment state; subscribers receive
+ * only the changed fields, serialized once per change, and ask for a snapshot
+ * when they subscribe or miss a version.
+ * <p>
+ * Versions count from the epoch a stream was started in. The state lives in
+ * memory, so a stream evicted when idle or lost with a restart starts a new
+ * epoch; a client that sees a new epoch drops the delta and asks for a
+ * snapshot. Every node keeps its own streams, so deltas need the SIMPLE broker
+ * mode: in RELAY and CLUSTER modes, pings of one shipment handled by different
+ * nodes arrive in alternating epochs and every delta turns into a snapshot.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrackingStreamService {
+
+	private static final ZoneId ZONE = ZoneId.systemDefault();
+
+	private final SimpMessagingTemplate messagingTemplate;
+	private final TrackingRepository trackingRepository;
+	private final ObjectMapper objectMapper;
+
+	@Value("${app.websocket.broker.mode:SIMPLE}")
+	private String brokerMode;
+
+	@Value("${app.tracking.stream.idle-minutes:120}")
+	private long idleMinutes;
+
+	private final Map<Long, StreamState> states = new ConcurrentHashMap<>();
+	// Epochs are this node's start id plus a stream counter, so none repeats across restarts or nodes
+	private final String nodeEpoch = UUID.randomUUID().toString().substring(0, 8);
+	private final AtomicLong streamsStarted = new AtomicLong();
+
+	@PostConstruct
+	void checkBrokerMode() {
+		if (!"SIMPLE".equalsIgnoreCase(brokerMode)) {
+			System.err.println("❌ Tracking deltas are versioned per node; with broker mode " + brokerMode
+					+ " clients fall back to snapshots unless a shipment's pings always reach one node");
+		}
+	}
+
+	public static String destination(Long shipmentId) {
+		return "/topic/tracking/" + shipmentId;
+	}
+
+	/** Publishes a live GPS position. */
+	public void publishPosition(LocationUpdateDTO location) {
+		publish(location.getShipmentId(), location.getLatitude(), location.getLongitude(), null, null,
+				location.getCreatedAt());
+	}
+
+	/** Publishes a stored milestone once its transaction has committed. */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onTrackingRecorded(TrackingRecordedEvent event) {
+		publish(event.getShipmentId(), event.getLatitude(), event.getLongitude(), event.getStatus(),
+				event.getDescription(), event.getCreatedAt());
+	}
+
+	/** Current state of a shipment, for a subscriber that has nothing yet. */
+	public TrackingEventDTO getSnapshot(Long shipmentId) {
+		return states.computeIfAbsent(shipmentId, this::loadState).snapshot(shipmentId);
+	}
+
+	private StreamState loadState(Long shipmentId) {
+		StreamState state = new StreamState(nodeEpoch + "." + Long.toString(streamsStarted.incrementAndGet(), 36));
+		Tracking last = trackingRepository.findFirstByShipmentIdOrderByCreatedAtDesc(shipmentId).orElse(null);
+		if (last != null) {
+			state.apply(last.getLatitude(), last.getLongitude(), last.getStatus().name(), last.getDescription(),
+					last.getCreatedAt());
+		}
+		return state;
+	}
+
+	private void publish(Long shipmentId, Double latitude, Double longitude, String status, String note,
+			LocalDateTime at) {
+		StreamState state = states.computeIfAbsent(shipmentId, this::loadState);
+		// Version assignment and send stay together so subscribers see versions in order
+		synchronized (state) {
+			TrackingEventDTO delta = state.apply(latitude, longitude, status, note, at);
+			if (delta == null) {
+				return;
+			}
+			try {
+				byte[] payload = objectMapper.writeValueAsBytes(delta);
+				messagingTemplate.send(destination(shipmentId), jsonMessage(payload));
+			} catch (JsonProcessingException | RuntimeException e) {
+				System.err.println("❌ Tracking delta send failed for shipment " + shipmentId + ": " + e.getMessage());
+			}
+		}
+	}
+
+	private static Message<byte[]> jsonMessage(byte[] payload) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+		accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+		accessor.setLeaveMutable(true);
+		return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+	}
+
+	@Scheduled(fixedDelayString = "${app.tracking.stream.evict-interval-ms:600000}")
+	public void evictIdle() {
+		LocalDateTime idleBefore = LocalDateTime.now().minusMinutes(idleMinutes);
+		// An evicted stream comes back in a new epoch, which tells clients its versions started over
+		states.values().removeIf(state -> state.isIdleSince(idleBefore));
+	}
+
+	private static final class StreamState {
+		private final String epoch;
+		private long version;
+		private Double latitude;
+		private Double longitude;
+		private String status;
+		private String note;
+		private LocalDateTime at;
+		private LocalDateTime touchedAt = LocalDateTime.now();
+
+		StreamState(String epoch) {
+			this.epoch = epoch;
+		}
+
+		/** @return the delta against the previous state, or null when nothing changed */
+		synchronized TrackingEventDTO apply(Double newLatitude, Double newLongitude, String newStatus,
+				String newNote, LocalDateTime newAt) {
+			touchedAt = LocalDateTime.now();
+			TrackingEventDTO delta = TrackingEventDTO.builder().type(TrackingEventDTO.DELTA).build();
+			boolean changed = false;
+			// Milestones without a position are recorded at (0, 0)
+			boolean positioned = newLatitude != null && newLongitude != null
+					&& (newLatitude != 0 || newLongitude != 0);
+			if (positioned && !(newLatitude.equals(latitude) && newLongitude.equals(longitude))) {
+				latitude = newLatitude;
+				longitude = newLongitude;
+				delta.setLat(newLatitude);
+				delta.setLng(newLongitude);
+				changed = true;
+			}
+			if (newStatus != null && !newStatus.equals(status)) {
+				status = newStatus;
+				delta.setStatus(newStatus);
+				changed = true;
+			}
+			if (newNote != null && !newNote.equals(note)) {
+				note = newNote;
+				delta.setNote(newNote);
+				changed = true;
+			}
+			if (newAt != null && (at == null || newAt.isAfter(at))) {
+				at = newAt;
+				if (changed) {
+					delta.setAt(epochMillis(newAt));
+				}
+			}
+			if (!changed) {
+				return null;
+			}
+			delta.setEpoch(epoch);
+			delta.setVersion(++version);
+			return delta;
+		}
+
+		synchronized TrackingEventDTO snapshot(Long shipmentId) {
+			return TrackingEventDTO.builder()
+					.type(TrackingEventDTO.SNAPSHOT)
+					.epoch(epoch)
+					.version(version)
+					.shipmentId(shipmentId)
+					.lat(latitude)
+					.lng(longitude)
+					.at(at != null ? epochMillis(at) : null)
+					.status(status)
+					.note(note)
+					.build();
+		}
+
+		synchronized boolean isIdleSince(LocalDateTime idleBefore) {
+			return touchedAt.isBefore(idleBefore);
+		}
+
+		private static long epochMillis(LocalDateTime time) {
+			return time.atZone(ZONE).toInstant().toEpochMilli();
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package ltweb.service;
+
+import ltweb.dto.LocationUpdateDTO;
+import ltweb.dto.TrackingTrailDTO;
+import ltweb.entity.TrackingTrailChunk;
+import ltweb.entity.TrackingTrailNote;
+import ltweb.repository.ShipmentRepository;
+import ltweb.repository.TrackingRepository;
+import ltweb.repository.TrackingTrailChunkRepository;
+import ltweb.repository.TrackingTrailNoteRepository;
+import ltweb.util.TrailCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GPS trails stored as compact per-shipment chunks (see {@link TrailCodec}).
+ * Milestone events stay as {@code trackings} rows; only raw positions live here,
+ * with the descriptions sent alongside them kept as {@link TrackingTrailNote} rows.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrackingTrailService {
+
+	private static final ZoneId ZONE = ZoneId.systemDefault();
+
+	private final TrackingTrailChunkRepository chunkRepository;
+	private final TrackingTrailNoteRepository noteRepository;
+	private final TrackingRepository trackingRepository;
+	private final ShipmentRepository shipmentRepository;
+
+	@Value("${app.tracking.trail.chunk-points:2048}")
+	private int chunkPoints;
+
+	/**
+	 * Appends points (oldest first) to the shipment's newest chunk, opening new
+	 * chunks as they fill up. The stored blob is extended in place, so an append
+	 * costs the new points only, however long the trail already is.
+	 */
+	@Transactional
+	public void append(Long shipmentId, List<LocationUpdateDTO> points) {
+		if (points.isEmpty()) {
+			return;
+		}
+		TrackingTrailChunkRepository.ChunkTail tail = chunkRepository
+				.findFirstByShipmentIdOrderByChunkSequenceDesc(shipmentId).orElse(null);
+		if (tail == null && !shipmentRepository.existsById(shipmentId)) {
+			throw new RuntimeException("Shipment not found: " + shipmentId);
+		}
+
+		List<TrackingTrailNote> notes = new ArrayList<>();
+		int next = 0;
+		if (tail != null && tail.getPointCount() < chunkPoints) {
+			int to = Math.min(points.size(), chunkPoints - tail.getPointCount());
+			TrackingTrailChunk run = encode(points, 0, to, tail.getLastLatitudeE6(), tail.getLastLongitudeE6(),
+					tail.getLastEpochSecond());
+			chunkRepository.appendPoints(tail.getId(), run.getData(), run.getPointCount(), run.getLastRecordedAt(),
+					run.getLastLatitudeE6(), run.getLastLongitudeE6(), run.getLastEpochSecond());
+			collectNotes(notes, shipmentId, tail.getChunkSequence(), tail.getPointCount(), points, 0, to);
+			next = to;
+		}
+
+		int sequence = tail == null ? 0 : tail.getChunkSequence() + 1;
+		while (next < points.size()) {
+			int to = Math.min(points.size(), next + chunkPoints);
+			// A new chunk starts from zero so its first point is absolute
+			TrackingTrailChunk chunk = encode(points, next, to, 0, 0, 0);
+			chunk.setShipmentId(shipmentId);
+			chunk.setChunkSequence(sequence);
+			chunkRepository.save(chunk);
+			collectNotes(notes, shipmentId, sequence, 0, points, next, to);
+			sequence++;
+			next = to;
+		}
+
+		if (!notes.isEmpty()) {
+			noteRepository.saveAll(notes);
+		}
+	}
+
+	/** Encodes points[from, to) after the given previous point; the result carries no shipment yet. */
+	private static TrackingTrailChunk encode(List<LocationUpdateDTO> points, int from, int to, int previousLatitude,
+			int previousLongitude, long previousSecond) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream((to - from) * 8);
+		for (int i = from; i < to; i++) {
+			LocationUpdateDTO point = points.get(i);
+			int latitude = TrailCodec.toMicroDegrees(point.getLatitude());
+			int longitude = TrailCodec.toMicroDegrees(point.getLongitude());
+			long second = point.getCreatedAt().atZone(ZONE).toEpochSecond();
+			TrailCodec.writePoint(out, latitude, longitude, second, previousLatitude, previousLongitude,
+					previousSecond);
+			previousLatitude = latitude;
+			previousLongitude = longitude;
+			previousSecond = second;
+		}
+
+		return TrackingTrailChunk.builder()
+				.pointCount(to - from)
+				.firstRecordedAt(points.get(from).getCreatedAt())
+				.lastRecordedAt(points.get(to - 1).getCreatedAt())
+				.lastLatitudeE6(previousLatitude)
+				.lastLongitudeE6(previousLongitude)
+				.lastEpochSecond(previousSecond)
+				.data(out.toByteArray())
+				.build();
+	}
+
+	private static void collectNotes(List<TrackingTrailNote> notes, Long shipmentId, int chunkSequence,
+			int firstIndex, List<LocationUpdateDTO> points, int from, int to) {
+		for (int i = from; i < to; i++) {
+			String description = points.get(i).getDescription();
+			if (description != null && !description.isBlank()) {
+				notes.add(TrackingTrailNote.builder()
+						.shipmentId(shipmentId)
+						.chunkSequence(chunkSequence)
+						.pointIndex(firstIndex + i - from)
+						.description(description)
+						.build());
+			}
+		}
+	}
+
+	/** Milestones plus the whole decoded GPS trail of a shipment. */
+	@Transactional(readOnly = true)
+	public TrackingTrailDTO getTrail(Long shipmentId) {
+		List<TrackingTrailChunk> chunks = chunkRepository.findByShipmentIdOrderByChunkSequenceAsc(shipmentId);
+		int total = 0;
+		for (TrackingTrailChunk chunk : chunks) {
+			total += chunk.getPointCount();
+		}
+
+		int[] latitudesE6 = new int[total];
+		int[] longitudesE6 = new int[total];
+		long[] seconds = new long[total];
+		int offset = 0;
+		Map<Integer, Integer> chunkOffsets = new HashMap<>();
+		for (TrackingTrailChunk chunk : chunks) {
+			chunkOffsets.put(chunk.getChunkSequence(), offset);
+			offset = TrailCodec.decode(chunk.getData(), chunk.getPointCount(), latitudesE6, longitudesE6, seconds,
+					offset);
+		}
+
+		String[] descriptions = new String[total];
+		for (TrackingTrailNote note : noteRepository.findByShipmentId(shipmentId)) {
+			Integer chunkOffset = chunkOffsets.get(note.getChunkSequence());
+			if (chunkOffset != null && chunkOffset + note.getPointIndex() < total) {
+				descriptions[chunkOffset + note.getPointIndex()] = note.getDescription();
+			}
+		}
+
+		double[] latitudes = new double[total];
+		double[] longitudes = new double[total];
+		long[] timestamps = new long[total];
+		for (int i = 0; i < total; i++) {
+			latitudes[i] = TrailCodec.toDegrees(latitudesE6[i]);
+			longitudes[i] = TrailCodec.toDegrees(longitudesE6[i]);
+			timestamps[i] = seconds[i] * 1000;
+		}
+
+		return TrackingTrailDTO.builder()
+				.shipmentId(shipmentId)
+				.milestones(trackingRepository.findByShipmentIdOrderByCreatedAtDesc(shipmentId))
+				.pointCount(total)
+				.latitudes(latitudes)
+				.longitudes(longitudes)
+				.timestamps(timestamps)
+				.descriptions(descriptions)
+				.build();
+	}
+}
@@ -0,0 +1,104 @@
+package ltweb.service;
+
+import ltweb.dto.LocationUpdateDTO;
+import ltweb.util.GeoUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming Douglas-Peucker ("opening window") simplification of one
+ * shipment's GPS trail. The last kept point is the anchor; incoming points are
+ * buffered while every buffered point stays within {@code toleranceMeters} of
+ * the segment from the anchor to the newest point. When one falls outside, the
+ * point before the newest is kept and becomes the anchor. A point is also kept
+ * once {@code maxGapSeconds} have passed since the anchor, so a stationary or
+ * straight-driving shipper still leaves a heartbeat.
+ *
+ * <p>Not thread-safe; the caller serializes access per shipment.
+ */
+final class TrajectorySimplifier {
+
+	private final double toleranceMeters;
+	private final long maxGapSeconds;
+	private final int maxWindow;
+
+	private LocationUpdateDTO anchor;
+	// Points received since the anchor, oldest first; the last one is still floating
+	private final List<LocationUpdateDTO> window = new ArrayList<>();
+
+	TrajectorySimplifier(double toleranceMeters, long maxGapSeconds, int maxWindow) {
+		this.toleranceMeters = toleranceMeters;
+		this.maxGapSeconds = maxGapSeconds;
+		this.maxWindow = maxWindow;
+	}
+
+	/**
+	 * Feeds the next point of the trail.
+	 *
+	 * @return the points that became final, oldest first (usually none)
+	 */
+	List<LocationUpdateDTO> offer(LocationUpdateDTO point) {
+		if (anchor == null) {
+			anchor = point;
+			return List.of(point);
+		}
+		window.add(point);
+
+		if (window.size() > 1 && exceedsTolerance(point)) {
+			LocationUpdateDTO kept = window.get(window.size() - 2);
+			anchor = kept;
+			window.clear();
+			window.add(point);
+			if (gapSeconds(anchor, point) >= maxGapSeconds) {
+				return keepFloating(kept);
+			}
+			return List.of(kept);
+		}
+
+		if (gapSeconds(anchor, point) >= maxGapSeconds || window.size() >= maxWindow) {
+			return keepFloating(null);
+		}
+		return List.of();
+	}
+
+	/** Keeps the floating point, e.g. before the shipment's state is discarded. */
+	List<LocationUpdateDTO> finish() {
+		return window.isEmpty() ? List.of() : keepFloating(null);
+	}
+
+	private List<LocationUpdateDTO> keepFloating(LocationUpdateDTO before) {
+		LocationUpdateDTO last = window.get(window.size() - 1);
+		anchor = last;
+		window.clear();
+		return before != null ? List.of(before, last) : List.of(last);
+	}
+
+	private boolean exceedsTolerance(LocationUpdateDTO end) {
+		// Local equirectangular projection around the anchor, in metres
+		double metersPerDegree = GeoUtils.EARTH_RADIUS_KM * 1000 * Math.PI / 180;
+		double cosLat = Math.cos(Math.toRadians(anchor.getLatitude()));
+		double ex = (end.getLongitude() - anchor.getLongitude()) * cosLat * metersPerDegree;
+		double ey = (end.getLatitude() - anchor.getLatitude()) * metersPerDegree;
+		double lengthSquared = ex * ex + ey * ey;
+		double toleranceSquared = toleranceMeters * toleranceMeters;
+
+		for (int i = 0; i < window.size() - 1; i++) {
+			LocationUpdateDTO point = window.get(i);
+			double px = (point.getLongitude() - anchor.getLongitude()) * cosLat * metersPerDegree;
+			double py = (point.getLatitude() - anchor.getLatitude()) * metersPerDegree;
+			double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * ex + py * ey) / lengthSquared));
+			double dx = px - t * ex;
+			double dy = py - t * ey;
+			if (dx * dx + dy * dy > toleranceSquared) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long gapSeconds(LocationUpdateDTO from, LocationUpdateDTO to) {
+		return Duration.between(from.getCreatedAt(), to.getCreatedAt()).getSeconds();
+	}
+}
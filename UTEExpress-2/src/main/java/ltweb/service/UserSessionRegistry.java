@@ -0,0 +1,113 @@
+package ltweb.service;
+
+import jakarta.annotation.PostConstruct;
+import ltweb.entity.User;
+import ltweb.repository.UserRepository;
+import ltweb.util.ExpiringCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live STOMP sessions by user. Per-user pushes go to
+ * {@code /user/{username}/...}; this registry maps a recipient's user id to
+ * the principal name and tells senders when there is nobody to deliver to.
+ * Notifications of every recipient type are addressed by user id.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserSessionRegistry {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.websocket.broker.mode:SIMPLE}")
+    private String brokerMode;
+
+    @Value("${app.websocket.user-cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${app.websocket.user-cache.ttl-seconds:600}")
+    private long cacheTtlSeconds;
+
+    private final Map<Long, LiveUser> liveUsers = new ConcurrentHashMap<>();
+    private final Map<String, Long> sessionUsers = new ConcurrentHashMap<>();
+    // Only consulted in multi-node modes, where the session may live on another node
+    private ExpiringCache<Long, Optional<String>> usernameCache;
+
+    @PostConstruct
+    void init() {
+        usernameCache = new ExpiringCache<>(cacheMaxSize, cacheTtlSeconds * 1000);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal principal = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (principal == null || sessionId == null) {
+            return;
+        }
+        User user = userRepository.findByUsername(principal.getName()).orElse(null);
+        if (user == null) {
+            return;
+        }
+        sessionUsers.put(sessionId, user.getId());
+        liveUsers.compute(user.getId(), (id, live) -> {
+            LiveUser liveUser = live != null ? live : new LiveUser(principal.getName());
+            liveUser.sessions.add(sessionId);
+            return liveUser;
+        });
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Long userId = sessionUsers.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+        liveUsers.computeIfPresent(userId, (id, live) -> {
+            live.sessions.remove(event.getSessionId());
+            return live.sessions.isEmpty() ? null : live;
+        });
+    }
+
+    /**
+     * Principal name to address a per-user push to, or null when the user
+     * cannot have a live session. With the single-node broker that is known
+     * exactly; in RELAY and CLUSTER modes the session may be held by another
+     * node, so the name is looked up and the broker decides.
+     */
+    public String findDeliveryTarget(Long userId) {
+        LiveUser live = liveUsers.get(userId);
+        if (live != null) {
+            return live.username;
+        }
+        if ("SIMPLE".equalsIgnoreCase(brokerMode)) {
+            return null;
+        }
+        Optional<String> cached = usernameCache.get(userId);
+        if (cached == null) {
+            cached = userRepository.findById(userId).map(User::getUsername);
+            usernameCache.put(userId, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    private static final class LiveUser {
+        final String username;
+        final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+        LiveUser(String username) {
+            this.username = username;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ltweb.service;
+
+import ltweb.entity.Warehouse;
+import ltweb.event.WarehouseChangedEvent;
+import ltweb.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class WarehouseLocatorService {
+
+	private final WarehouseRepository warehouseRepository;
+	private final GeocodingService geocodingService;
+
+	private volatile WarehouseSpatialIndex spatialIndex;
+	private final AtomicLong warehouseVersion = new AtomicLong();
+
+	public Warehouse findNearestWarehouse(double latitude, double longitude) {
+		return getSpatialIndex().findNearest(latitude, longitude);
+	}
+
+	public List<WarehouseSpatialIndex.Neighbour> findNearestWarehouses(double latitude, double longitude, int k) {
+		return getSpatialIndex().findNearest(latitude, longitude, k);
+	}
+
+	public WarehouseSpatialIndex getSpatialIndex() {
+		WarehouseSpatialIndex index = spatialIndex;
+		if (index != null) {
+			return index;
+		}
+		synchronized (this) {
+			if (spatialIndex != null) {
+				return spatialIndex;
+			}
+			long version = warehouseVersion.get();
+			index = WarehouseSpatialIndex.build(warehouseRepository.findAll(),
+					warehouse -> locate(warehouse.getLatitude(), warehouse.getLongitude(), warehouse.getAddress()));
+			if (version == warehouseVersion.get()) {
+				spatialIndex = index;
+			}
+			return index;
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onWarehouseChanged(WarehouseChangedEvent event) {
+		WarehouseSpatialIndex index = spatialIndex;
+		// Stock updates fire this on every receipt; only a moved warehouse needs a rebuild
+		if (index != null && !event.isRemoved() && isIndexedAt(index, event)) {
+			return;
+		}
+		warehouseVersion.incrementAndGet();
+		spatialIndex = null;
+	}
+
+	private boolean isIndexedAt(WarehouseSpatialIndex index, WarehouseChangedEvent event) {
+		Warehouse indexed = index.get(event.getWarehouseId());
+		if (indexed == null) {
+			return locate(event.getLatitude(), event.getLongitude(), event.getAddress()) == null;
+		}
+		return Objects.equals(indexed.getLatitude(), event.getLatitude())
+				&& Objects.equals(indexed.getLongitude(), event.getLongitude())
+				&& Objects.equals(indexed.getAddress(), event.getAddress());
+	}
+
+	/** Entered coordinates win; otherwise the warehouse sits where its address geocodes to. */
+	private double[] locate(Double latitude, Double longitude, String address) {
+		if (latitude != null && longitude != null) {
+			return new double[] { latitude, longitude };
+		}
+		Optional<Gazetteer.Place> place = geocodingService.geocode(address);
+		return place.map(p -> new double[] { p.getLatitude(), p.getLongitude() }).orElse(null);
+	}
+}
@@ -1,29 +1,50 @@
 package ltweb.service;
 
 import ltweb.entity.*;
-import ltweb.entity.Package;
 import ltweb.repository.*;
+import ltweb.dto.TrackingMilestoneDTO;
+import ltweb.util.GeoUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class WarehouseService {
 
+	private static final int IN_CHUNK_SIZE = 1000;
+
+	private static final String HISTORY_INSERT_SQL = "INSERT INTO warehouse_status_history "
+			+ "(warehouse_id, package_id, change_type, old_status, new_status, quantity_changed, user_id, notes, "
+			+ "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String OUTBOUND_MERGE_SQL = "MERGE INTO inventories AS t USING (VALUES %s) AS s (id, quantity) "
+			+ "ON t.id = s.id AND t.remaining_quantity >= s.quantity "
+			+ "WHEN MATCHED THEN UPDATE SET delivered_quantity = COALESCE(t.delivered_quantity, 0) + s.quantity, "
+			+ "remaining_quantity = t.quantity - COALESCE(t.delivered_quantity, 0) - s.quantity, updated_at = ?;";
+
 	private final WarehouseRepository warehouseRepository;
 	private final InventoryRepository inventoryRepository;
 	private final InboundReceiptRepository inboundReceiptRepository;
-	private final InboundReceiptDetailRepository inboundReceiptDetailRepository;
 	private final OutboundReceiptRepository outboundReceiptRepository;
-	private final OutboundReceiptDetailRepository outboundReceiptDetailRepository;
 	private final WarehouseLocationRepository warehouseLocationRepository;
-	private final WarehouseStatusHistoryRepository warehouseStatusHistoryRepository;
 	private final PackageRepository packageRepository;
-	private final ShipmentRepository shipmentRepository;
 	private final TrackingService trackingService;
+	private final JdbcTemplate jdbcTemplate;
 
 	public List<Warehouse> getAllWarehouses() {
 		return warehouseRepository.findAll();
@@ -54,6 +75,9 @@ public class WarehouseService {
 
 	@Transactional
 	public Warehouse updateWarehouse(Long id, Warehouse warehouseDetails) {
+		if (!GeoUtils.isValidCoordinate(warehouseDetails.getLatitude(), warehouseDetails.getLongitude())) {
+			throw new RuntimeException("Tọa độ kho không hợp lệ");
+		}
 		Warehouse warehouse = getWarehouseById(id);
 		warehouse.setName(warehouseDetails.getName());
 		warehouse.setAddress(warehouseDetails.getAddress());
@@ -61,6 +85,8 @@ public class WarehouseService {
 		warehouse.setEmail(warehouseDetails.getEmail());
 		warehouse.setManager(warehouseDetails.getManager());
 		warehouse.setTotalCapacity(warehouseDetails.getTotalCapacity());
+		warehouse.setLatitude(warehouseDetails.getLatitude());
+		warehouse.setLongitude(warehouseDetails.getLongitude());
 		return warehouseRepository.save(warehouse);
 	}
 
@@ -72,139 +98,248 @@ public class WarehouseService {
 		return inventoryRepository.findAvailableInventoryByWarehouseId(warehouseId);
 	}
 
+	/**
+	 * Records an inbound receipt in bulk: packages, orders, shipments and
+	 * inventories are read with a few IN queries, and details, inventory
+	 * changes, location updates, history and tracking are each written as one
+	 * JDBC batch. Each shipment gets a single tracking milestone however many
+	 * of its packages arrive; notifications follow after commit.
+	 */
 	@Transactional
 	public InboundReceipt createInboundReceipt(InboundReceipt inboundReceipt, List<InboundReceiptDetail> details) {
-	    InboundReceipt savedReceipt = inboundReceiptRepository.save(inboundReceipt);
-	    
-	    for (InboundReceiptDetail detail : details) {
-	        detail.setInboundReceipt(savedReceipt);
-	        inboundReceiptDetailRepository.save(detail);
-	        
-	        updateInventoryOnInbound(savedReceipt.getWarehouse().getId(), detail.getPackageItem().getId(),
-	                detail.getQuantity());
-	        
-	        if (detail.getWarehouseLocation() != null) {
-	            WarehouseLocation location = detail.getWarehouseLocation();
-	            location.setStatus(LocationStatus.OCCUPIED);
-	            location.setPackageItem(detail.getPackageItem());
-	            warehouseLocationRepository.save(location);
-	        }
-	        
-	        // Tạo tracking khi kho nhận hàng
-	        Package packageItem = detail.getPackageItem();
-	        Order order = packageItem.getOrder();
-	        if (order != null) {
-	            Shipment shipment = shipmentRepository.findByOrderId(order.getId()).orElse(null);
-	            if (shipment != null) {
-	                String trackingDescription = "Hàng đã đến kho " + 
-	                    savedReceipt.getWarehouse().getName();
-	                
-	                // Kiểm tra xem có phải kho đích cuối không
-	                if (order.getDestinationWarehouse() != null && 
-	                    order.getDestinationWarehouse().getId().equals(savedReceipt.getWarehouse().getId())) {
-	                    trackingDescription += " (Kho đích)";
-	                } else {
-	                    trackingDescription += " (Kho trung chuyển)";
-	                }
-	                
-	                trackingService.createTracking(
-	                    shipment, 
-	                    0.0, 
-	                    0.0, 
-	                    trackingDescription, 
-	                    TrackingStatus.IN_PROGRESS
-	                );
-	            }
-	        }
-	        
-	        logWarehouseStatusHistory(savedReceipt.getWarehouse(), detail.getPackageItem(), ChangeType.INBOUND, null,
-	                "RECEIVED", detail.getQuantity(), savedReceipt.getReceivedBy(),
-	                "Inbound receipt: " + savedReceipt.getReceiptCode());
-	    }
-	    
-	    updateWarehouseCurrentStock(savedReceipt.getWarehouse().getId());
-	    return savedReceipt;
+		InboundReceipt savedReceipt = inboundReceiptRepository.saveAndFlush(inboundReceipt);
+		Warehouse warehouse = savedReceipt.getWarehouse();
+		Long warehouseId = warehouse.getId();
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+		Map<Long, PackageRepository.PackageRouting> routing = findPackageRouting(details.stream()
+				.map(detail -> detail.getPackageItem().getId()).collect(Collectors.toSet()));
+
+		List<Object[]> detailRows = new ArrayList<>(details.size());
+		List<Object[]> locationRows = new ArrayList<>();
+		List<Object[]> historyRows = new ArrayList<>(details.size());
+		Map<Long, Integer> quantityByPackage = new LinkedHashMap<>();
+		for (InboundReceiptDetail detail : details) {
+			Long packageId = detail.getPackageItem().getId();
+			Long locationId = detail.getWarehouseLocation() != null ? detail.getWarehouseLocation().getId() : null;
+			detailRows.add(new Object[] { savedReceipt.getId(), packageId, locationId, detail.getQuantity(),
+					detail.getNotes() });
+			if (locationId != null) {
+				locationRows.add(new Object[] { LocationStatus.OCCUPIED.name(), packageId, locationId });
+			}
+			historyRows.add(new Object[] { warehouseId, packageId, ChangeType.INBOUND.name(), null, "RECEIVED",
+					detail.getQuantity(), savedReceipt.getReceivedBy().getId(),
+					"Inbound receipt: " + savedReceipt.getReceiptCode(), now });
+			quantityByPackage.merge(packageId, detail.getQuantity(), Integer::sum);
+		}
+
+		jdbcTemplate.batchUpdate("INSERT INTO inbound_receipt_details "
+				+ "(inbound_receipt_id, package_id, warehouse_location_id, quantity, notes) VALUES (?, ?, ?, ?, ?)",
+				detailRows);
+		addInventoryOnInbound(warehouseId, quantityByPackage, now);
+		if (!locationRows.isEmpty()) {
+			jdbcTemplate.batchUpdate("UPDATE warehouse_locations SET status = ?, package_id = ? WHERE id = ?",
+					locationRows);
+		}
+		jdbcTemplate.batchUpdate(HISTORY_INSERT_SQL, historyRows);
+
+		// Tạo tracking khi kho nhận hàng, một lần cho mỗi vận đơn; kho đích hay kho trung chuyển
+		trackingService.createTrackings(
+				milestonesPerShipment(quantityByPackage.keySet(), routing,
+						route -> "Hàng đã đến kho " + warehouse.getName()
+								+ (warehouseId.equals(route.getDestinationWarehouseId()) ? " (Kho đích)"
+										: " (Kho trung chuyển)")),
+				0.0, 0.0, TrackingStatus.IN_PROGRESS);
+
+		updateWarehouseCurrentStock(warehouseId);
+		return savedReceipt;
+	}
+
+	/** Routing of every package, failing when one does not exist. */
+	private Map<Long, PackageRepository.PackageRouting> findPackageRouting(Set<Long> packageIds) {
+		Map<Long, PackageRepository.PackageRouting> routing = new HashMap<>();
+		for (List<Long> chunk : partition(packageIds)) {
+			for (PackageRepository.PackageRouting route : packageRepository.findRoutingByIdIn(chunk)) {
+				routing.put(route.getPackageId(), route);
+			}
+		}
+		for (Long packageId : packageIds) {
+			if (!routing.containsKey(packageId)) {
+				throw new RuntimeException("Package not found with id: " + packageId);
+			}
+		}
+		return routing;
+	}
+
+	private void addInventoryOnInbound(Long warehouseId, Map<Long, Integer> quantityByPackage, Timestamp now) {
+		Map<Long, Long> inventoryIds = new HashMap<>();
+		for (List<Long> chunk : partition(quantityByPackage.keySet())) {
+			for (InventoryRepository.InventoryKey key : inventoryRepository
+					.findKeysByWarehouseIdAndPackageIdIn(warehouseId, chunk)) {
+				inventoryIds.put(key.getPackageId(), key.getId());
+			}
+		}
+
+		List<Object[]> updates = new ArrayList<>();
+		List<Object[]> inserts = new ArrayList<>();
+		quantityByPackage.forEach((packageId, quantity) -> {
+			Long inventoryId = inventoryIds.get(packageId);
+			if (inventoryId != null) {
+				updates.add(new Object[] { quantity, quantity, now, inventoryId });
+			} else {
+				inserts.add(new Object[] { warehouseId, packageId, quantity, quantity, now });
+			}
+		});
+		// remaining = quantity - delivered, with the new quantity
+		if (!updates.isEmpty()) {
+			jdbcTemplate.batchUpdate("UPDATE inventories SET quantity = quantity + ?, "
+					+ "remaining_quantity = quantity + ? - COALESCE(delivered_quantity, 0), updated_at = ? WHERE id = ?",
+					updates);
+		}
+		if (!inserts.isEmpty()) {
+			jdbcTemplate.batchUpdate("INSERT INTO inventories (warehouse_id, package_id, quantity, delivered_quantity, "
+					+ "remaining_quantity, created_at) VALUES (?, ?, ?, 0, ?, ?)", inserts);
+		}
 	}
 
+	// Keeps IN lists well under SQL Server's 2100 parameter limit
+	private static List<List<Long>> partition(Collection<Long> ids) {
+		List<Long> all = new ArrayList<>(ids);
+		List<List<Long>> chunks = new ArrayList<>();
+		for (int from = 0; from < all.size(); from += IN_CHUNK_SIZE) {
+			chunks.add(all.subList(from, Math.min(all.size(), from + IN_CHUNK_SIZE)));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Records an outbound receipt in bulk, mirroring
+	 * {@link #createInboundReceipt}: stock for every line is checked with one
+	 * query per chunk and taken in a single guarded MERGE, so a dispatch wave
+	 * fails as a whole when any package runs short. Package statuses, history
+	 * and tracking are written in batches.
+	 */
 	@Transactional
 	public OutboundReceipt createOutboundReceipt(OutboundReceipt outboundReceipt, List<OutboundReceiptDetail> details) {
-	    OutboundReceipt savedReceipt = outboundReceiptRepository.save(outboundReceipt);
-	    
-	    for (OutboundReceiptDetail detail : details) {
-	        detail.setOutboundReceipt(savedReceipt);
-	        outboundReceiptDetailRepository.save(detail);
-	        
-	        updateInventoryOnOutbound(savedReceipt.getWarehouse().getId(), detail.getPackageItem().getId(),
-	                detail.getQuantity());
-	        
-	        if (detail.getWarehouseLocation() != null) {
-	            WarehouseLocation location = detail.getWarehouseLocation();
-	            location.setStatus(LocationStatus.EMPTY);
-	            location.setPackageItem(null);
-	            warehouseLocationRepository.save(location);
-	        }
-	        
-	        Package packageItem = detail.getPackageItem();
-	        packageItem.setStatus(PackageStatus.DANG_VAN_CHUYEN);
-	        packageRepository.save(packageItem);
-	        
-	        // Tạo tracking khi kho xuất hàng
-	        Order order = packageItem.getOrder();
-	        if (order != null) {
-	            Shipment shipment = shipmentRepository.findByOrderId(order.getId()).orElse(null);
-	            if (shipment != null) {
-	                String trackingDescription = "Hàng đã được xuất từ kho " + 
-	                    savedReceipt.getWarehouse().getName();
-	                
-	                trackingService.createTracking(
-	                    shipment, 
-	                    0.0, 
-	                    0.0, 
-	                    trackingDescription, 
-	                    TrackingStatus.IN_PROGRESS
-	                );
-	            }
-	        }
-	        
-	        logWarehouseStatusHistory(savedReceipt.getWarehouse(), detail.getPackageItem(), ChangeType.OUTBOUND,
-	                "IN_WAREHOUSE", "OUT_FOR_DELIVERY", detail.getQuantity(), savedReceipt.getIssuedBy(),
-	                "Outbound receipt: " + savedReceipt.getReceiptCode());
-	    }
-	    
-	    updateWarehouseCurrentStock(savedReceipt.getWarehouse().getId());
-	    return savedReceipt;
+		OutboundReceipt savedReceipt = outboundReceiptRepository.saveAndFlush(outboundReceipt);
+		Warehouse warehouse = savedReceipt.getWarehouse();
+		Long warehouseId = warehouse.getId();
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+		Map<Long, PackageRepository.PackageRouting> routing = findPackageRouting(details.stream()
+				.map(detail -> detail.getPackageItem().getId()).collect(Collectors.toSet()));
+
+		List<Object[]> detailRows = new ArrayList<>(details.size());
+		List<Object[]> locationRows = new ArrayList<>();
+		List<Object[]> historyRows = new ArrayList<>(details.size());
+		Map<Long, Integer> quantityByPackage = new LinkedHashMap<>();
+		for (OutboundReceiptDetail detail : details) {
+			Long packageId = detail.getPackageItem().getId();
+			Long locationId = detail.getWarehouseLocation() != null ? detail.getWarehouseLocation().getId() : null;
+			detailRows.add(new Object[] { savedReceipt.getId(), packageId, locationId, detail.getQuantity(),
+					detail.getNotes() });
+			if (locationId != null) {
+				locationRows.add(new Object[] { LocationStatus.EMPTY.name(), null, locationId });
+			}
+			historyRows.add(new Object[] { warehouseId, packageId, ChangeType.OUTBOUND.name(), "IN_WAREHOUSE",
+					"OUT_FOR_DELIVERY", detail.getQuantity(), savedReceipt.getIssuedBy().getId(),
+					"Outbound receipt: " + savedReceipt.getReceiptCode(), now });
+			quantityByPackage.merge(packageId, detail.getQuantity(), Integer::sum);
+		}
+
+		takeInventoryOnOutbound(warehouseId, quantityByPackage, now);
+		jdbcTemplate.batchUpdate("INSERT INTO outbound_receipt_details "
+				+ "(outbound_receipt_id, package_id, warehouse_location_id, quantity, notes) VALUES (?, ?, ?, ?, ?)",
+				detailRows);
+		if (!locationRows.isEmpty()) {
+			jdbcTemplate.batchUpdate("UPDATE warehouse_locations SET status = ?, package_id = ? WHERE id = ?",
+					locationRows);
+		}
+		for (List<Long> chunk : partition(quantityByPackage.keySet())) {
+			List<Object> args = new ArrayList<>(chunk.size() + 1);
+			args.add(PackageStatus.DANG_VAN_CHUYEN.name());
+			args.addAll(chunk);
+			jdbcTemplate.update("UPDATE packages SET status = ? WHERE id IN (" + placeholders(chunk.size()) + ")",
+					args.toArray());
+		}
+		jdbcTemplate.batchUpdate(HISTORY_INSERT_SQL, historyRows);
+
+		// Tạo tracking khi kho xuất hàng, một lần cho mỗi vận đơn
+		trackingService.createTrackings(
+				milestonesPerShipment(quantityByPackage.keySet(), routing,
+						route -> "Hàng đã được xuất từ kho " + warehouse.getName()),
+				0.0, 0.0, TrackingStatus.IN_PROGRESS);
+
+		updateWarehouseCurrentStock(warehouseId);
+		return savedReceipt;
 	}
 
+	/**
+	 * Checks stock for every package, then takes it with one MERGE per chunk.
+	 * The MERGE only matches rows that still hold enough, so stock taken by a
+	 * concurrent dispatch since the check shows up as a short row count.
+	 */
+	private void takeInventoryOnOutbound(Long warehouseId, Map<Long, Integer> quantityByPackage, Timestamp now) {
+		Map<Long, InventoryRepository.InventoryKey> inventories = new HashMap<>();
+		for (List<Long> chunk : partition(quantityByPackage.keySet())) {
+			for (InventoryRepository.InventoryKey key : inventoryRepository
+					.findKeysByWarehouseIdAndPackageIdIn(warehouseId, chunk)) {
+				inventories.put(key.getPackageId(), key);
+			}
+		}
 
-	@Transactional
-	private void updateInventoryOnInbound(Long warehouseId, Long packageId, Integer quantity) {
-	    Inventory inventory = inventoryRepository.findByWarehouseIdAndPackageItemId(warehouseId, packageId)
-	        .orElse(Inventory.builder()
-	            .warehouse(warehouseRepository.findById(warehouseId).orElseThrow())
-	            .packageItem(packageRepository.findById(packageId).orElseThrow())
-	            .quantity(0)
-	            .deliveredQuantity(0)
-	            .remainingQuantity(0)
-	            .build());
-	    
-	    inventory.setQuantity(inventory.getQuantity() + quantity);
-	    inventory.setRemainingQuantity(inventory.getQuantity() - inventory.getDeliveredQuantity()); // ✅ Công thức mới
-	    inventoryRepository.save(inventory);
+		List<Object[]> lines = new ArrayList<>(quantityByPackage.size());
+		quantityByPackage.forEach((packageId, quantity) -> {
+			InventoryRepository.InventoryKey inventory = inventories.get(packageId);
+			if (inventory == null) {
+				throw new RuntimeException("Inventory not found");
+			}
+			if (inventory.getRemainingQuantity() == null || inventory.getRemainingQuantity() < quantity) {
+				throw new RuntimeException("Insufficient inventory");
+			}
+			lines.add(new Object[] { inventory.getId(), quantity });
+		});
+
+		// Two parameters per line, so a chunk stays under the 2100 parameter limit
+		for (int from = 0; from < lines.size(); from += IN_CHUNK_SIZE) {
+			List<Object[]> chunk = lines.subList(from, Math.min(lines.size(), from + IN_CHUNK_SIZE));
+			List<Object> args = new ArrayList<>(chunk.size() * 2 + 1);
+			for (Object[] line : chunk) {
+				args.add(line[0]);
+				args.add(line[1]);
+			}
+			args.add(now);
+			int updated = jdbcTemplate.update(String.format(OUTBOUND_MERGE_SQL,
+					String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)"))), args.toArray());
+			if (updated != chunk.size()) {
+				throw new RuntimeException("Insufficient inventory");
+			}
+		}
 	}
 
+	/** One tracking milestone per shipment among the given packages. */
+	private static List<TrackingMilestoneDTO> milestonesPerShipment(Collection<Long> packageIds,
+			Map<Long, PackageRepository.PackageRouting> routing,
+			Function<PackageRepository.PackageRouting, String> description) {
+		Map<Long, TrackingMilestoneDTO> milestones = new LinkedHashMap<>();
+		for (Long packageId : packageIds) {
+			PackageRepository.PackageRouting route = routing.get(packageId);
+			if (route.getShipmentId() == null || milestones.containsKey(route.getShipmentId())) {
+				continue;
+			}
+			milestones.put(route.getShipmentId(), TrackingMilestoneDTO.builder()
+					.shipmentId(route.getShipmentId())
+					.orderId(route.getOrderId())
+					.orderCode(route.getOrderCode())
+					.customerUserId(route.getCustomerUserId())
+					.description(description.apply(route))
+					.build());
+		}
+		return new ArrayList<>(milestones.values());
+	}
 
-	@Transactional
-	private void updateInventoryOnOutbound(Long warehouseId, Long packageId, Integer quantity) {
-	    Inventory inventory = inventoryRepository.findByWarehouseIdAndPackageItemId(warehouseId, packageId)
-	        .orElseThrow(() -> new RuntimeException("Inventory not found"));
-	    
-	    if (inventory.getRemainingQuantity() < quantity) {
-	        throw new RuntimeException("Insufficient inventory");
-	    }
-	    
-	    inventory.setDeliveredQuantity(inventory.getDeliveredQuantity() + quantity);
-	    inventory.setRemainingQuantity(inventory.getQuantity() - inventory.getDeliveredQuantity()); // ✅ Công thức mới
-	    inventoryRepository.save(inventory);
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
 	}
 
 	@Transactional
@@ -215,15 +350,6 @@ public class WarehouseService {
 		warehouseRepository.save(warehouse);
 	}
 
-	@Transactional
-	private void logWarehouseStatusHistory(Warehouse warehouse, Package packageItem, ChangeType changeType,
-			String oldStatus, String newStatus, Integer quantity, User user, String notes) {
-		WarehouseStatusHistory history = WarehouseStatusHistory.builder().warehouse(warehouse).packageItem(packageItem)
-				.changeType(changeType).oldStatus(oldStatus).newStatus(newStatus).quantityChanged(quantity)
-				.performedBy(user).notes(notes).build();
-		warehouseStatusHistoryRepository.save(history);
-	}
-
 	public List<WarehouseLocation> getLocationsByWarehouseId(Long warehouseId) {
 		return warehouseLocationRepository.findByWarehouseId(warehouseId);
 	}
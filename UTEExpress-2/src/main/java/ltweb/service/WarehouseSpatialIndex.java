@@ -0,0 +1,189 @@
+package ltweb.service;
+
+import ltweb.entity.Warehouse;
+import ltweb.util.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Immutable 3-d tree over warehouse positions. Coordinates are projected onto
+ * the unit sphere, where straight-line (chord) distance orders points exactly
+ * like great-circle distance, so nearest-neighbour pruning stays correct across
+ * the antimeridian and at any latitude.
+ */
+public final class WarehouseSpatialIndex {
+
+	private final Warehouse[] warehouses;
+	// Implicit k-d layout: the middle point of every [lo, hi] range splits that range
+	private final double[][] points;
+
+	private WarehouseSpatialIndex(Warehouse[] warehouses, double[][] points) {
+		this.warehouses = warehouses;
+		this.points = points;
+	}
+
+	public static WarehouseSpatialIndex build(List<Warehouse> candidates) {
+		return build(candidates, warehouse -> warehouse.getLatitude() != null && warehouse.getLongitude() != null
+				? new double[] { warehouse.getLatitude(), warehouse.getLongitude() }
+				: null);
+	}
+
+	/** @param position latitude and longitude of a warehouse, or null to leave it out */
+	public static WarehouseSpatialIndex build(List<Warehouse> candidates, Function<Warehouse, double[]> position) {
+		List<Warehouse> located = new ArrayList<>();
+		List<double[]> raw = new ArrayList<>();
+		for (Warehouse warehouse : candidates) {
+			double[] latLng = position.apply(warehouse);
+			if (latLng != null) {
+				located.add(warehouse);
+				raw.add(toUnitVector(latLng[0], latLng[1]));
+			}
+		}
+
+		int n = located.size();
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		buildTree(order, raw, 0, n - 1, 0);
+
+		Warehouse[] warehouses = new Warehouse[n];
+		double[][] points = new double[n][];
+		for (int i = 0; i < n; i++) {
+			warehouses[i] = located.get(order[i]);
+			points[i] = raw.get(order[i]);
+		}
+		return new WarehouseSpatialIndex(warehouses, points);
+	}
+
+	private static void buildTree(Integer[] order, List<double[]> raw, int lo, int hi, int axis) {
+		if (lo >= hi) {
+			return;
+		}
+		Arrays.sort(order, lo, hi + 1, (a, b) -> Double.compare(raw.get(a)[axis], raw.get(b)[axis]));
+		int mid = (lo + hi) >>> 1;
+		buildTree(order, raw, lo, mid - 1, (axis + 1) % 3);
+		buildTree(order, raw, mid + 1, hi, (axis + 1) % 3);
+	}
+
+	private static double[] toUnitVector(double latitude, double longitude) {
+		double lat = Math.toRadians(latitude);
+		double lng = Math.toRadians(longitude);
+		return new double[] { Math.cos(lat) * Math.cos(lng), Math.cos(lat) * Math.sin(lng), Math.sin(lat) };
+	}
+
+	public int size() {
+		return warehouses.length;
+	}
+
+	/** @return the indexed warehouse with this id, or null */
+	public Warehouse get(Long warehouseId) {
+		for (Warehouse warehouse : warehouses) {
+			if (warehouse.getId().equals(warehouseId)) {
+				return warehouse;
+			}
+		}
+		return null;
+	}
+
+	public Warehouse findNearest(double latitude, double longitude) {
+		List<Neighbour> nearest = findNearest(latitude, longitude, 1);
+		return nearest.isEmpty() ? null : nearest.get(0).getWarehouse();
+	}
+
+	/** @return up to {@code k} warehouses ordered by great-circle distance */
+	public List<Neighbour> findNearest(double latitude, double longitude, int k) {
+		if (k <= 0 || warehouses.length == 0) {
+			return Collections.emptyList();
+		}
+		double[] target = toUnitVector(latitude, longitude);
+		int limit = Math.min(k, warehouses.length);
+		// Bounded max-heap of the best candidates so far, keyed by squared chord
+		int[] heapIndex = new int[limit];
+		double[] heapDist = new double[limit];
+		int[] heapSize = { 0 };
+		search(target, 0, warehouses.length - 1, 0, heapIndex, heapDist, heapSize);
+
+		List<Neighbour> result = new ArrayList<>(heapSize[0]);
+		for (int i = 0; i < heapSize[0]; i++) {
+			result.add(new Neighbour(warehouses[heapIndex[i]], GeoUtils.chordToKm(Math.sqrt(heapDist[i]))));
+		}
+		result.sort((a, b) -> Double.compare(a.getDistanceKm(), b.getDistanceKm()));
+		return result;
+	}
+
+	private void search(double[] target, int lo, int hi, int axis, int[] heapIndex, double[] heapDist,
+			int[] heapSize) {
+		if (lo > hi) {
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		double[] point = points[mid];
+		double dx = point[0] - target[0];
+		double dy = point[1] - target[1];
+		double dz = point[2] - target[2];
+		offer(mid, dx * dx + dy * dy + dz * dz, heapIndex, heapDist, heapSize);
+
+		double delta = target[axis] - point[axis];
+		int next = (axis + 1) % 3;
+		if (delta < 0) {
+			search(target, lo, mid - 1, next, heapIndex, heapDist, heapSize);
+			if (heapSize[0] < heapIndex.length || delta * delta < heapDist[0]) {
+				search(target, mid + 1, hi, next, heapIndex, heapDist, heapSize);
+			}
+		} else {
+			search(target, mid + 1, hi, next, heapIndex, heapDist, heapSize);
+			if (heapSize[0] < heapIndex.length || delta * delta < heapDist[0]) {
+				search(target, lo, mid - 1, next, heapIndex, heapDist, heapSize);
+			}
+		}
+	}
+
+	private static void offer(int index, double dist, int[] heapIndex, double[] heapDist, int[] heapSize) {
+		int size = heapSize[0];
+		int i;
+		if (size < heapIndex.length) {
+			i = size;
+			heapSize[0] = size + 1;
+			while (i > 0 && heapDist[(i - 1) >>> 1] < dist) {
+				int parent = (i - 1) >>> 1;
+				heapIndex[i] = heapIndex[parent];
+				heapDist[i] = heapDist[parent];
+				i = parent;
+			}
+		} else {
+			if (dist >= heapDist[0]) {
+				return;
+			}
+			i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && heapDist[child + 1] > heapDist[child]) {
+					child++;
+				}
+				if (heapDist[child] <= dist) {
+					break;
+				}
+				heapIndex[i] = heapIndex[child];
+				heapDist[i] = heapDist[child];
+				i = child;
+			}
+		}
+		heapIndex[i] = index;
+		heapDist[i] = dist;
+	}
+
+	@lombok.Data
+	@lombok.AllArgsConstructor
+	public static class Neighbour {
+		private Warehouse warehouse;
+		private double distanceKm;
+	}
+}
@@ -0,0 +1,108 @@
+package ltweb.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import ltweb.event.RealtimeMessageEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * After-commit WebSocket publishing. Messages sent inside a transaction are
+ * held until it commits (and dropped on rollback), then handed to a relay
+ * thread so the broker send is off both the transaction and the request.
+ * Coalesced messages keep only their newest pending payload per key.
+ */
+@Service
+@RequiredArgsConstructor
+public class WebSocketRelay {
+
+	private final SimpMessagingTemplate messagingTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+
+	@Value("${app.websocket.relay.queue-capacity:10000}")
+	private int queueCapacity;
+
+	private BlockingQueue<Envelope> queue;
+	// Newest payload per coalesce key; a queued marker envelope sends it
+	private final Map<String, Object> latest = new ConcurrentHashMap<>();
+	private Thread worker;
+	private volatile boolean running;
+
+	@PostConstruct
+	void start() {
+		queue = new LinkedBlockingQueue<>(queueCapacity);
+		running = true;
+		worker = new Thread(this::relayLoop, "websocket-relay");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	@PreDestroy
+	void stop() throws InterruptedException {
+		running = false;
+		worker.interrupt();
+		worker.join(TimeUnit.SECONDS.toMillis(5));
+	}
+
+	/** Sends every payload, in order, once the current transaction commits. */
+	public void send(String destination, Object payload) {
+		eventPublisher.publishEvent(new RealtimeMessageEvent(destination, payload, null));
+	}
+
+	/** Like {@link #send}, but a newer payload with the same key replaces one still pending. */
+	public void sendLatest(String destination, String key, Object payload) {
+		eventPublisher.publishEvent(new RealtimeMessageEvent(destination, payload, key));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRealtimeMessage(RealtimeMessageEvent event) {
+		String key = event.getCoalesceKey();
+		if (key == null) {
+			enqueue(new Envelope(event.getDestination(), event.getPayload(), null));
+		} else if (latest.put(key, event.getPayload()) == null) {
+			enqueue(new Envelope(event.getDestination(), null, key));
+		}
+	}
+
+	private void enqueue(Envelope envelope) {
+		if (!queue.offer(envelope)) {
+			deliver(envelope);
+		}
+	}
+
+	private void relayLoop() {
+		while (running) {
+			try {
+				deliver(queue.take());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void deliver(Envelope envelope) {
+		Object payload = envelope.coalesceKey != null ? latest.remove(envelope.coalesceKey) : envelope.payload;
+		if (payload == null) {
+			return;
+		}
+		try {
+			messagingTemplate.convertAndSend(envelope.destination, payload);
+		} catch (Exception e) {
+			System.err.println("❌ WebSocket send failed: " + e.getMessage());
+		}
+	}
+
+	private record Envelope(String destination, Object payload, String coalesceKey) {
+	}
+}
@@ -0,0 +1,37 @@
+package ltweb.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import ltweb.service.ExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+public class DownloadUtils {
+
+    /**
+     * Sets the download headers and returns the stream to write the file to.
+     * CSV is gzipped on the fly when the client accepts it; XLSX is already
+     * a zip archive and is sent as is. The caller must close the stream.
+     */
+    public static OutputStream openAttachment(HttpServletRequest request, HttpServletResponse response,
+                                              ExportService.Format format, String baseName) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(baseName + "." + format.getExtension(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (format == ExportService.Format.CSV && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+        }
+        return response.getOutputStream();
+    }
+}
@@ -0,0 +1,17 @@
+package ltweb.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Row-at-a-time sink for tabular exports. Rows go straight to the output, so
+ * an export holds no more than one row (plus the writer's own window) in memory.
+ */
+public interface TableWriter extends Closeable {
+
+    void writeRow(Object... values) throws IOException;
+
+    /** Completes the document; the underlying stream is left open. */
+    @Override
+    void close() throws IOException;
+}
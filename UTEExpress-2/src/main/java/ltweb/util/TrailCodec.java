@@ -0,0 +1,85 @@
+package ltweb.util;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Binary encoding for GPS trails. Each point is stored as the difference from
+ * the previous one (latitude and longitude in millionths of a degree, time in
+ * seconds), zigzag-mapped and written as a varint, so a typical point takes 5-8
+ * bytes instead of a full row. The first point of a blob is relative to zero.
+ */
+public final class TrailCodec {
+
+    public static final double SCALE = 1_000_000.0;
+
+    private TrailCodec() {
+    }
+
+    public static int toMicroDegrees(double degrees) {
+        return (int) Math.round(degrees * SCALE);
+    }
+
+    public static double toDegrees(int microDegrees) {
+        return microDegrees / SCALE;
+    }
+
+    /** Writes one point as deltas from the previous point of the same blob. */
+    public static void writePoint(ByteArrayOutputStream out, int latitude, int longitude, long epochSecond,
+            int previousLatitude, int previousLongitude, long previousEpochSecond) {
+        writeVarint(out, zigzag((long) latitude - previousLatitude));
+        writeVarint(out, zigzag((long) longitude - previousLongitude));
+        writeVarint(out, zigzag(epochSecond - previousEpochSecond));
+    }
+
+    /**
+     * Decodes {@code count} points into the arrays starting at {@code offset}.
+     *
+     * @return the offset after the last decoded point
+     */
+    public static int decode(byte[] data, int count, int[] latitudes, int[] longitudes, long[] epochSeconds,
+            int offset) {
+        int[] position = { 0 };
+        long latitude = 0;
+        long longitude = 0;
+        long epochSecond = 0;
+        for (int i = 0; i < count; i++) {
+            latitude += unzigzag(readVarint(data, position));
+            longitude += unzigzag(readVarint(data, position));
+            epochSecond += unzigzag(readVarint(data, position));
+            latitudes[offset] = (int) latitude;
+            longitudes[offset] = (int) longitude;
+            epochSeconds[offset] = epochSecond;
+            offset++;
+        }
+        return offset;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] position) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = data[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+    }
+}
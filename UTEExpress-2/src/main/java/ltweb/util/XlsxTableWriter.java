@@ -0,0 +1,98 @@
+package ltweb.util;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * XLSX through POI's streaming workbook: only the last {@code WINDOW_ROWS}
+ * rows stay in memory, older ones are flushed to a compressed temp file.
+ * The first row written is the header and is repeated on every sheet when
+ * the export outgrows one.
+ */
+public class XlsxTableWriter implements TableWriter {
+
+    private static final int WINDOW_ROWS = 100;
+    private static final int MAX_SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final OutputStream out;
+    private final String sheetName;
+    private final int maxSheetRows;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle dateStyle;
+    private Object[] header;
+    private SXSSFSheet sheet;
+    private int nextRow;
+    private int sheetCount;
+
+    public XlsxTableWriter(OutputStream out, String sheetName) {
+        this(out, sheetName, MAX_SHEET_ROWS);
+    }
+
+    XlsxTableWriter(OutputStream out, String sheetName, int maxSheetRows) {
+        this.out = out;
+        this.sheetName = sheetName;
+        this.maxSheetRows = maxSheetRows;
+        this.workbook = new SXSSFWorkbook(WINDOW_ROWS);
+        workbook.setCompressTempFiles(true);
+        this.dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        if (sheet == null || nextRow == maxSheetRows) {
+            sheet = workbook.createSheet(sheetCount++ == 0 ? sheetName : sheetName + " (" + sheetCount + ")");
+            nextRow = 0;
+            if (header == null) {
+                // This row is the header itself
+                header = values.clone();
+            } else {
+                fill(sheet.createRow(nextRow++), header);
+            }
+        }
+        fill(sheet.createRow(nextRow++), values);
+    }
+
+    private void fill(Row row, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof BigDecimal decimal) {
+                cell.setCellValue(decimal.doubleValue());
+            } else if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value instanceof LocalDateTime time) {
+                cell.setCellValue(time);
+                cell.setCellStyle(dateStyle);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sheet == null) {
+                workbook.createSheet(sheetName);
+            }
+            workbook.write(out);
+        } finally {
+            // Removes the temp files as well, also when the client went away mid-export
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -7,19 +7,13 @@ function connectShipper() {
 	shipperStompClient.connect({}, function(frame) {
 		console.log('Connected: ' + frame);
 
-		const shipperId = document.querySelector('[data-shipper-id]')?.dataset.shipperId;
-
-		if (shipperId) {
-			shipperStompClient.subscribe(`/topic/notifications/shipper/${shipperId}`, function(notification) {
-				showShipperNotification(JSON.parse(notification.body));
-			});
-		}
+		shipperStompClient.subscribe('/user/queue/notifications', function(notification) {
+			showShipperNotification(JSON.parse(notification.body));
+		});
 
 		const shipmentId = document.querySelector('[data-shipment-id]')?.dataset.shipmentId;
 		if (shipmentId) {
-			shipperStompClient.subscribe(`/topic/tracking/${shipmentId}`, function(tracking) {
-				updateTrackingInfo(JSON.parse(tracking.body));
-			});
+			subscribeTracking(shipmentId);
 		}
 	});
 }
@@ -49,14 +43,50 @@ function showShipperNotification(notification) {
 
 }
 
+// Deltas carry only changed fields; a snapshot (from /app) resets the state.
+// A version gap means a delta was missed, so a fresh snapshot is requested.
+// Versions only compare within an epoch: a delta from a new epoch (the stream
+// restarted on the server) is dropped and a fresh snapshot is requested.
+let trackingState = null;
+let snapshotSubscription = null;
+
+function subscribeTracking(shipmentId) {
+	shipperStompClient.subscribe(`/topic/tracking/${shipmentId}`, function(message) {
+		const delta = JSON.parse(message.body);
+		if (trackingState === null) {
+			return;
+		}
+		if (delta.version <= trackingState.version && delta.epoch === trackingState.epoch) {
+			return;
+		}
+		if (delta.epoch !== trackingState.epoch || delta.version !== trackingState.version + 1) {
+			requestTrackingSnapshot(shipmentId);
+			return;
+		}
+		Object.assign(trackingState, delta);
+		updateTrackingInfo(trackingState);
+	});
+	requestTrackingSnapshot(shipmentId);
+}
+
+function requestTrackingSnapshot(shipmentId) {
+	if (snapshotSubscription !== null) {
+		snapshotSubscription.unsubscribe();
+	}
+	snapshotSubscription = shipperStompClient.subscribe(`/app/tracking/${shipmentId}`, function(message) {
+		trackingState = JSON.parse(message.body);
+		updateTrackingInfo(trackingState);
+	});
+}
+
 function updateTrackingInfo(tracking) {
 	console.log('Tracking updated:', tracking);
 	const trackingDiv = document.getElementById('tracking-info');
-	if (trackingDiv) {
+	if (trackingDiv && tracking.lat != null) {
 		trackingDiv.innerHTML = `
-            <p>Vĩ độ: ${tracking.latitude}</p>
-            <p>Kinh độ: ${tracking.longitude}</p>
-            <p>Cập nhật: ${new Date(tracking.createdAt).toLocaleString('vi-VN')}</p>
+            <p>Vĩ độ: ${tracking.lat}</p>
+            <p>Kinh độ: ${tracking.lng}</p>
+            <p>Cập nhật: ${new Date(tracking.at).toLocaleString('vi-VN')}</p>
         `;
 	}
 }
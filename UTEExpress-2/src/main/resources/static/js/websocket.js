@@ -7,14 +7,10 @@ function connect() {
 	stompClient.connect({}, function(frame) {
 		console.log('Connected: ' + frame);
 
-		const recipientType = 'WAREHOUSE';
-		const recipientId = document.querySelector('[data-recipient-id]')?.dataset.recipientId;
-
-		if (recipientId) {
-			stompClient.subscribe(`/topic/notifications/${recipientType.toLowerCase()}/${recipientId}`, function(notification) {
-				showNotification(JSON.parse(notification.body));
-			});
-		}
+		// Delivered only to the logged-in user's own sessions
+		stompClient.subscribe('/user/queue/notifications', function(notification) {
+			showNotification(JSON.parse(notification.body));
+		});
 
 		stompClient.subscribe('/topic/location', function(location) {
 			updateShipperLocation(JSON.parse(location.body));
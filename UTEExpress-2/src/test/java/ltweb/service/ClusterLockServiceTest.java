@@ -0,0 +1,62 @@
+package ltweb.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClusterLockServiceTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final ClusterLockService clusterLockService = new ClusterLockService(jdbcTemplate, transactionManager);
+
+	@BeforeEach
+	void setUp() {
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+	}
+
+	@Test
+	void runsTheJobWhenTheLockIsGranted() {
+		applockReturns(0);
+		AtomicInteger runs = new AtomicInteger();
+
+		assertTrue(clusterLockService.runExclusively("job", runs::incrementAndGet));
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void skipsTheJobWhileAnotherNodeHoldsTheLock() {
+		applockReturns(-1);
+		AtomicInteger runs = new AtomicInteger();
+
+		assertFalse(clusterLockService.runExclusively("job", runs::incrementAndGet));
+		assertEquals(0, runs.get());
+	}
+
+	@Test
+	void deadlockVictimIsReportedAsALockFailure() {
+		applockReturns(-3);
+
+		assertThrows(CannotAcquireLockException.class, () -> clusterLockService.lockExclusive("rollups"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void applockReturns(int result) {
+		when(jdbcTemplate.execute(anyString(), any(CallableStatementCallback.class))).thenReturn(result);
+	}
+}
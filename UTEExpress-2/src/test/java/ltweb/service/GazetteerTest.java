@@ -0,0 +1,74 @@
+package ltweb.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GazetteerTest {
+
+	private static Gazetteer gazetteer;
+
+	@BeforeAll
+	static void load() throws IOException {
+		try (InputStream input = GazetteerTest.class.getResourceAsStream("/geo/vn-gazetteer.txt")) {
+			gazetteer = Gazetteer.load(input);
+		}
+	}
+
+	@Test
+	void normalizesDiacriticsAndPunctuation() {
+		assertEquals("q 1 tp ho chi minh", Gazetteer.normalize("Q.1, TP. Hồ Chí Minh"));
+		assertEquals("dong da ha noi", Gazetteer.normalize("  Đống Đa -- HÀ NỘI "));
+	}
+
+	@Test
+	void resolvesProvincesByNameAndAlias() {
+		assertEquals("Hà Nội", resolve("12 Tràng Tiền, Hà Nội"));
+		assertEquals("Hồ Chí Minh", resolve("Sài Gòn"));
+		assertEquals("Lâm Đồng", resolve("Dalat"));
+		assertNull(resolve("123 Main Street, Springfield"));
+		assertNull(resolve(""));
+	}
+
+	@Test
+	void resolvesDistrictsInsideTheirProvince() {
+		assertEquals("Đống Đa", resolve("45 Tây Sơn, Đống Đa, Hà Nội"));
+		assertEquals("Liên Chiểu", resolve("Hòa Khánh, Đà Nẵng"));
+		assertEquals("1", resolve("10 Lê Lợi, Quận 1, TP.HCM"));
+	}
+
+	@Test
+	void bareDistrictNamesNeedTheirProvince() {
+		// "Hai Bà Trưng" is a Hanoi district but also a street in Saigon
+		assertEquals("Hồ Chí Minh", resolve("100 Hai Bà Trưng, Hồ Chí Minh"));
+		assertNull(resolve("100 Hai Bà Trưng"));
+		// Prefixed forms stand on their own
+		assertEquals("Hai Bà Trưng", resolve("Quận Hai Bà Trưng"));
+		assertEquals("3", resolve("Q3"));
+	}
+
+	@Test
+	void lastProvinceWins() {
+		assertEquals("Đà Nẵng", resolve("Kho Hà Nội chuyển, Đà Nẵng"));
+	}
+
+	@Test
+	void rejectsDistrictBeforeItsProvince() {
+		String data = "D;Ba Đình;Hà Nội;21.03;105.81;\nP;Hà Nội;;21.02;105.85;\n";
+		assertThrows(IllegalArgumentException.class,
+				() -> Gazetteer.load(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	private static String resolve(String address) {
+		Gazetteer.Place place = gazetteer.resolve(Gazetteer.normalize(address));
+		return place != null ? place.getName() : null;
+	}
+}
@@ -0,0 +1,96 @@
+package ltweb.service;
+
+import ltweb.event.OrderChangedEvent;
+import ltweb.repository.OrderDailyRollupRepository;
+import ltweb.repository.OrderMonthlyRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OrderAnalyticsServiceTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final ClusterLockService clusterLockService = mock(ClusterLockService.class);
+	private final OrderAnalyticsService service = new OrderAnalyticsService(jdbcTemplate, transactionManager,
+			clusterLockService, mock(OrderDailyRollupRepository.class), mock(OrderMonthlyRollupRepository.class));
+
+	@BeforeEach
+	void setUp() {
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+	}
+
+	@Test
+	void orderChangesOnlyMarkDaysUntilTheRefresh() {
+		service.onOrderChanged(new OrderChangedEvent(1L, state(LocalDate.of(2026, 3, 9), "CHO_GIAO"),
+				state(LocalDate.of(2026, 3, 9), "HOAN_THANH")));
+
+		verifyNoInteractions(jdbcTemplate, clusterLockService);
+	}
+
+	@Test
+	void refreshRecomputesEachChangedDayAndItsMonthOnce() {
+		service.onOrderChanged(new OrderChangedEvent(1L, null, state(LocalDate.of(2026, 3, 9), "CHO_GIAO")));
+		service.onOrderChanged(new OrderChangedEvent(2L, state(LocalDate.of(2026, 3, 10), "CHO_GIAO"),
+				state(LocalDate.of(2026, 3, 10), "HOAN_THANH")));
+		service.onOrderChanged(new OrderChangedEvent(3L, null, state(LocalDate.of(2026, 4, 1), "CHO_GIAO")));
+
+		service.refreshChanged();
+
+		InOrder march = inOrder(clusterLockService, jdbcTemplate);
+		march.verify(clusterLockService).lockExclusive("order-rollups.2026-03");
+		march.verify(jdbcTemplate).update(contains("order_daily_rollups WITH"), eq(date(2026, 3, 9)),
+				eq(date(2026, 3, 10)), eq(date(2026, 3, 9)), eq(date(2026, 3, 10)));
+		march.verify(jdbcTemplate).update(contains("order_daily_rollups WITH"), eq(date(2026, 3, 10)),
+				eq(date(2026, 3, 11)), eq(date(2026, 3, 10)), eq(date(2026, 3, 11)));
+		march.verify(jdbcTemplate).update(contains("order_monthly_rollups"), eq(date(2026, 3, 1)),
+				eq(date(2026, 4, 1)), eq(date(2026, 3, 1)), eq(date(2026, 3, 1)), eq(date(2026, 3, 1)));
+		verify(clusterLockService).lockExclusive("order-rollups.2026-04");
+		verify(jdbcTemplate, times(2)).update(contains("order_monthly_rollups"), any(), any(), any(), any(), any());
+
+		// Nothing changed since
+		service.refreshChanged();
+		verify(clusterLockService, times(2)).lockExclusive(anyString());
+	}
+
+	@Test
+	void failedDaysAreRefreshedOnTheNextRun() {
+		service.onOrderChanged(new OrderChangedEvent(1L, null, state(LocalDate.of(2026, 3, 9), "CHO_GIAO")));
+		when(jdbcTemplate.update(contains("order_monthly_rollups"), any(), any(), any(), any(), any()))
+				.thenThrow(new RuntimeException("deadlock"))
+				.thenReturn(1);
+
+		service.refreshChanged();
+		service.refreshChanged();
+
+		verify(clusterLockService, times(2)).lockExclusive("order-rollups.2026-03");
+		verify(jdbcTemplate, never()).queryForObject(anyString(), any(Class.class));
+	}
+
+	private static OrderChangedEvent.State state(LocalDate createdDate, String status) {
+		return new OrderChangedEvent.State(createdDate, status, "STANDARD", BigDecimal.valueOf(30000));
+	}
+
+	private static Date date(int year, int month, int day) {
+		return Date.valueOf(LocalDate.of(year, month, day));
+	}
+}
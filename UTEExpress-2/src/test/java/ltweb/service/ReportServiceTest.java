@@ -0,0 +1,118 @@
+package ltweb.service;
+
+import ltweb.entity.ReportType;
+import ltweb.entity.Warehouse;
+import ltweb.entity.WarehouseReport;
+import ltweb.repository.InboundReceiptDetailRepository;
+import ltweb.repository.InboundReceiptRepository;
+import ltweb.repository.OutboundReceiptDetailRepository;
+import ltweb.repository.OutboundReceiptRepository;
+import ltweb.repository.WarehouseReportRepository;
+import ltweb.repository.WarehouseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportServiceTest {
+
+	private static final long WAREHOUSE_ID = 1L;
+	private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 10, 0, 0);
+	private static final LocalDateTime NEXT_DAY = DAY.plusDays(1);
+
+	private final WarehouseReportRepository reportRepository = mock(WarehouseReportRepository.class);
+	private final WarehouseRepository warehouseRepository = mock(WarehouseRepository.class);
+	private final InboundReceiptRepository inboundRepository = mock(InboundReceiptRepository.class);
+	private final OutboundReceiptRepository outboundRepository = mock(OutboundReceiptRepository.class);
+	private final InboundReceiptDetailRepository inboundDetailRepository = mock(InboundReceiptDetailRepository.class);
+	private final OutboundReceiptDetailRepository outboundDetailRepository = mock(
+			OutboundReceiptDetailRepository.class);
+	private final InventorySnapshotService snapshotService = mock(InventorySnapshotService.class);
+
+	private final ReportService reportService = new ReportService(reportRepository, warehouseRepository,
+			inboundRepository, outboundRepository, inboundDetailRepository, outboundDetailRepository,
+			snapshotService);
+
+	@BeforeEach
+	void setUp() {
+		when(warehouseRepository.findById(WAREHOUSE_ID))
+				.thenReturn(Optional.of(Warehouse.builder().id(WAREHOUSE_ID).totalCapacity(1_000).build()));
+		when(reportRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(inboundDetailRepository.sumQuantityByWarehouseIdAndReceivedDateInterval(any(), any(), any()))
+				.thenReturn(30L);
+		when(outboundDetailRepository.sumQuantityByWarehouseIdAndIssuedDateInterval(any(), any(), any()))
+				.thenReturn(10L);
+		when(snapshotService.getStockAt(WAREHOUSE_ID, DAY)).thenReturn(100);
+	}
+
+	@Test
+	void dayCoversReceiptsUpToTheNextMidnight() {
+		WarehouseReport report = reportService.generateDailyReport(WAREHOUSE_ID, DAY.plusHours(9), null);
+
+		assertEquals(DAY.withHour(23).withMinute(59).withSecond(59), report.getEndDate());
+		verify(inboundDetailRepository).sumQuantityByWarehouseIdAndReceivedDateInterval(WAREHOUSE_ID, DAY,
+				NEXT_DAY);
+		verify(outboundRepository).countByWarehouseIdAndIssuedDateGreaterThanAndIssuedDateLessThanEqual(
+				WAREHOUSE_ID, DAY, NEXT_DAY);
+		assertEquals(100, report.getOpeningStock());
+		assertEquals(120, report.getClosingStock());
+	}
+
+	@Test
+	void carriesForwardACompletePreviousReport() {
+		previousDay(DAY.plusMinutes(15), 90);
+
+		WarehouseReport report = reportService.generateDailyReport(WAREHOUSE_ID, DAY, null);
+
+		assertEquals(90, report.getOpeningStock());
+		assertEquals(110, report.getClosingStock());
+	}
+
+	@Test
+	void ignoresAPreviousReportGeneratedBeforeItsDayEnded() {
+		// Generated at 18:00, so later receipts of that day are missing from its closing stock
+		previousDay(DAY.minusHours(6), 90);
+
+		WarehouseReport report = reportService.generateDailyReport(WAREHOUSE_ID, DAY, null);
+
+		assertEquals(100, report.getOpeningStock());
+	}
+
+	@Test
+	void onlyReportsGeneratedAfterThePeriodCountAsComplete() {
+		when(reportRepository.findFirstByWarehouseIdAndReportTypeAndStartDateOrderByCreatedAtDesc(WAREHOUSE_ID,
+				ReportType.DAILY, DAY)).thenReturn(Optional.of(daily(DAY, DAY.plusHours(23).plusMinutes(59)
+						.plusSeconds(59).plusNanos(500_000_000), 0)));
+		assertFalse(reportService.hasCompleteReport(WAREHOUSE_ID, ReportType.DAILY, DAY));
+
+		when(reportRepository.findFirstByWarehouseIdAndReportTypeAndStartDateOrderByCreatedAtDesc(WAREHOUSE_ID,
+				ReportType.DAILY, DAY)).thenReturn(Optional.of(daily(DAY, NEXT_DAY, 0)));
+		assertTrue(reportService.hasCompleteReport(WAREHOUSE_ID, ReportType.DAILY, DAY));
+	}
+
+	private void previousDay(LocalDateTime createdAt, int closingStock) {
+		when(reportRepository.findFirstByWarehouseIdAndReportTypeAndEndDateBetweenOrderByCreatedAtDesc(
+				eq(WAREHOUSE_ID), eq(ReportType.DAILY), any(), any()))
+				.thenReturn(Optional.of(daily(DAY.minusDays(1), createdAt, closingStock)));
+	}
+
+	private static WarehouseReport daily(LocalDateTime start, LocalDateTime createdAt, int closingStock) {
+		return WarehouseReport.builder()
+				.reportType(ReportType.DAILY)
+				.startDate(start)
+				.endDate(start.withHour(23).withMinute(59).withSecond(59))
+				.closingStock(closingStock)
+				.createdAt(createdAt)
+				.build();
+	}
+}
@@ -0,0 +1,135 @@
+package ltweb.service;
+
+import ltweb.entity.Route;
+import ltweb.entity.Warehouse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RouteTableTest {
+
+	private static final int WAREHOUSES = 25;
+
+	private final Warehouse[] warehouses = new Warehouse[WAREHOUSES];
+
+	RouteTableTest() {
+		for (int i = 0; i < WAREHOUSES; i++) {
+			warehouses[i] = Warehouse.builder().id((long) i + 1).build();
+		}
+	}
+
+	@Test
+	void movingRouteEndpointsDropsTheOldPair() {
+		List<Route> routes = new ArrayList<>();
+		routes.add(route(1, 0, 1, 1.0));
+		routes.add(route(2, 1, 2, 1.0));
+		routes.add(route(3, 0, 2, 5.0));
+		routes.add(route(4, 2, 3, 1.0));
+		RouteTable table = RouteTable.build(RouteGraph.build(routes, RouteGraph.Weight.DISTANCE));
+
+		// Route 1 now runs 3 -> 1; the 0 -> 1 pair it used to serve is gone
+		routes.set(0, route(1, 3, 1, 1.0));
+		RouteGraph graph = RouteGraph.build(routes, RouteGraph.Weight.DISTANCE);
+		table = table.update(graph);
+
+		assertEquals(5.0, cost(table, 0, 2));
+		assertEquals(7.0, cost(table, 0, 1));
+		assertMatchesFullRecompute(table, graph);
+	}
+
+	@Test
+	void incrementalUpdatesMatchFullRecompute() {
+		Random random = new Random(42);
+		List<Route> routes = new ArrayList<>();
+		long nextId = 1;
+		for (int i = 0; i < 80; i++) {
+			routes.add(randomRoute(random, nextId++));
+		}
+		RouteTable table = RouteTable.build(RouteGraph.build(routes, RouteGraph.Weight.DISTANCE));
+
+		for (int step = 0; step < 300; step++) {
+			int index = random.nextInt(routes.size());
+			Route current = routes.get(index);
+			switch (random.nextInt(5)) {
+			case 0 -> routes.set(index, route(current.getId(), index(current.getFromWarehouse()),
+					index(current.getToWarehouse()), 1 + random.nextInt(50)));
+			case 1 -> routes.set(index, randomRoute(random, current.getId()));
+			case 2 -> {
+				Route inactive = route(current.getId(), index(current.getFromWarehouse()),
+						index(current.getToWarehouse()), current.getDistanceKm());
+				inactive.setIsActive(!Boolean.TRUE.equals(current.getIsActive()));
+				routes.set(index, inactive);
+			}
+			case 3 -> routes.add(randomRoute(random, nextId++));
+			default -> routes.remove(index);
+			}
+
+			RouteGraph graph = RouteGraph.build(routes, RouteGraph.Weight.DISTANCE);
+			table = table.update(graph);
+			assertMatchesFullRecompute(table, graph);
+		}
+	}
+
+	private void assertMatchesFullRecompute(RouteTable table, RouteGraph graph) {
+		for (int source = 0; source < graph.size(); source++) {
+			for (int target = 0; target < graph.size(); target++) {
+				if (source == target) {
+					continue;
+				}
+				int[] expected = graph.shortestPath(source, target);
+				int[] actual = table.path(source, target);
+				if (expected == null) {
+					assertNull(actual, source + " -> " + target);
+					continue;
+				}
+				assertNotNull(actual, source + " -> " + target);
+				int node = source;
+				for (int edge : actual) {
+					assertEquals(node, graph.edgeFrom(edge));
+					node = graph.edgeTo(edge);
+				}
+				assertEquals(target, node);
+				assertEquals(sum(graph, expected), sum(graph, actual), 1e-9, source + " -> " + target);
+			}
+		}
+	}
+
+	private static double cost(RouteTable table, int source, int target) {
+		RouteGraph graph = table.getGraph();
+		return sum(graph, table.path(graph.indexOf((long) source + 1), graph.indexOf((long) target + 1)));
+	}
+
+	private static double sum(RouteGraph graph, int[] path) {
+		double total = 0;
+		for (int edge : path) {
+			total += graph.edgeWeight(edge);
+		}
+		return total;
+	}
+
+	private Route randomRoute(Random random, long id) {
+		int from = random.nextInt(WAREHOUSES);
+		int to = (from + 1 + random.nextInt(WAREHOUSES - 1)) % WAREHOUSES;
+		return route(id, from, to, 1 + random.nextInt(50));
+	}
+
+	private Route route(long id, int from, int to, double distanceKm) {
+		return Route.builder()
+				.id(id)
+				.fromWarehouse(warehouses[from])
+				.toWarehouse(warehouses[to])
+				.distanceKm(distanceKm)
+				.isActive(true)
+				.build();
+	}
+
+	private static int index(Warehouse warehouse) {
+		return (int) (warehouse.getId() - 1);
+	}
+}
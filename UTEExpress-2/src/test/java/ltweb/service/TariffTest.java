@@ -0,0 +1,56 @@
+package ltweb.service;
+
+import ltweb.entity.ServiceType;
+import ltweb.entity.TariffBand;
+import ltweb.entity.TariffDimension;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TariffTest {
+
+	private final Tariff tariff = Tariff.compile(bands(), null);
+
+	@Test
+	void quotesBandsInFixedPoint() {
+		// 20,000 base + 3,000/km * 12.5 km + 5,000/kg * 2.25 kg
+		assertEquals(68_750L * Tariff.MICRO, tariff.quoteMicro(12_500, 2_250, ServiceType.STANDARD));
+		// Second distance band: 50,000 at 100 km + 1,000/km beyond
+		assertEquals((50_000L + 20_000L) * Tariff.MICRO, tariff.quoteMicro(120_000, 0, ServiceType.STANDARD));
+	}
+
+	@Test
+	void overflowIsReportedNotWrapped() {
+		assertThrows(ArithmeticException.class,
+				() -> tariff.quoteMicro(Long.MAX_VALUE / 1_000, 0, ServiceType.STANDARD));
+		assertThrows(ArithmeticException.class,
+				() -> tariff.quoteMicro(0, Math.round(1e18), ServiceType.STANDARD));
+	}
+
+	private static List<TariffBand> bands() {
+		List<TariffBand> bands = new ArrayList<>();
+		for (ServiceType serviceType : ServiceType.values()) {
+			bands.add(band(serviceType, TariffDimension.DISTANCE, 0, "20000", "3000"));
+			bands.add(band(serviceType, TariffDimension.DISTANCE, 100, "50000", "1000"));
+			bands.add(band(serviceType, TariffDimension.WEIGHT, 0, "0", "5000"));
+		}
+		return bands;
+	}
+
+	private static TariffBand band(ServiceType serviceType, TariffDimension dimension, double lowerBound,
+			String baseFee, String unitPrice) {
+		return TariffBand.builder()
+				.serviceType(serviceType)
+				.dimension(dimension)
+				.lowerBound(lowerBound)
+				.baseFee(new BigDecimal(baseFee))
+				.unitPrice(new BigDecimal(unitPrice))
+				.isActive(true)
+				.build();
+	}
+}
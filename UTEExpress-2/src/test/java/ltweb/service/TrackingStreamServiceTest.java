@@ -0,0 +1,88 @@
+package ltweb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ltweb.dto.LocationUpdateDTO;
+import ltweb.dto.TrackingEventDTO;
+import ltweb.repository.TrackingRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrackingStreamServiceTest {
+
+	private static final long SHIPMENT_ID = 5L;
+
+	private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+	private final TrackingRepository trackingRepository = mock(TrackingRepository.class);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final TrackingStreamService service = new TrackingStreamService(messagingTemplate, trackingRepository,
+			objectMapper);
+
+	@Test
+	void evictedStreamRestartsInANewEpoch() throws IOException {
+		when(trackingRepository.findFirstByShipmentIdOrderByCreatedAtDesc(anyLong())).thenReturn(Optional.empty());
+
+		service.publishPosition(position(10.0, 106.0));
+		service.publishPosition(position(10.1, 106.0));
+		TrackingEventDTO snapshot = service.getSnapshot(SHIPMENT_ID);
+
+		ReflectionTestUtils.setField(service, "idleMinutes", -1L);
+		service.evictIdle();
+		service.publishPosition(position(10.2, 106.0));
+
+		List<TrackingEventDTO> deltas = sentDeltas();
+		assertEquals(3, deltas.size());
+		assertEquals(snapshot.getEpoch(), deltas.get(0).getEpoch());
+		assertEquals(2, snapshot.getVersion());
+		// Version 1 again, which the client would otherwise drop as already seen
+		assertEquals(1, deltas.get(2).getVersion());
+		assertNotEquals(snapshot.getEpoch(), deltas.get(2).getEpoch());
+	}
+
+	@Test
+	void streamsOfSeparateNodesHaveTheirOwnEpochs() {
+		when(trackingRepository.findFirstByShipmentIdOrderByCreatedAtDesc(anyLong())).thenReturn(Optional.empty());
+		TrackingStreamService otherNode = new TrackingStreamService(messagingTemplate, trackingRepository,
+				objectMapper);
+
+		assertNotEquals(service.getSnapshot(SHIPMENT_ID).getEpoch(), otherNode.getSnapshot(SHIPMENT_ID).getEpoch());
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<TrackingEventDTO> sentDeltas() throws IOException {
+		ArgumentCaptor<Message<?>> sent = ArgumentCaptor.forClass(Message.class);
+		verify(messagingTemplate, atLeastOnce()).send(eq(TrackingStreamService.destination(SHIPMENT_ID)),
+				sent.capture());
+		List<TrackingEventDTO> deltas = new ArrayList<>();
+		for (Message<?> message : sent.getAllValues()) {
+			deltas.add(objectMapper.readValue((byte[]) message.getPayload(), TrackingEventDTO.class));
+		}
+		return deltas;
+	}
+
+	private static LocationUpdateDTO position(double latitude, double longitude) {
+		return LocationUpdateDTO.builder()
+				.shipmentId(SHIPMENT_ID)
+				.latitude(latitude)
+				.longitude(longitude)
+				.createdAt(LocalDateTime.now())
+				.build();
+	}
+}
@@ -0,0 +1,146 @@
+package ltweb.service;
+
+import ltweb.dto.LocationUpdateDTO;
+import ltweb.dto.TrackingTrailDTO;
+import ltweb.entity.TrackingTrailChunk;
+import ltweb.entity.TrackingTrailNote;
+import ltweb.repository.ShipmentRepository;
+import ltweb.repository.TrackingRepository;
+import ltweb.repository.TrackingTrailChunkRepository;
+import ltweb.repository.TrackingTrailNoteRepository;
+import ltweb.util.TrailCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrackingTrailServiceTest {
+
+	private static final long SHIPMENT_ID = 7L;
+	private static final LocalDateTime START = LocalDateTime.of(2026, 3, 10, 8, 0);
+
+	private final TrackingTrailChunkRepository chunkRepository = mock(TrackingTrailChunkRepository.class);
+	private final TrackingTrailNoteRepository noteRepository = mock(TrackingTrailNoteRepository.class);
+	private final TrackingRepository trackingRepository = mock(TrackingRepository.class);
+	private final ShipmentRepository shipmentRepository = mock(ShipmentRepository.class);
+	private final TrackingTrailService service = new TrackingTrailService(chunkRepository, noteRepository,
+			trackingRepository, shipmentRepository);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "chunkPoints", 3);
+	}
+
+	@Test
+	void appendsToTheTailInPlaceAndOpensFullSizeChunks() {
+		TrackingTrailChunkRepository.ChunkTail tail = mock(TrackingTrailChunkRepository.ChunkTail.class);
+		when(tail.getId()).thenReturn(40L);
+		when(tail.getChunkSequence()).thenReturn(2);
+		when(tail.getPointCount()).thenReturn(2);
+		when(tail.getLastLatitudeE6()).thenReturn(10_000_000);
+		when(tail.getLastLongitudeE6()).thenReturn(106_000_000);
+		when(tail.getLastEpochSecond()).thenReturn(epochSecond(START) - 5);
+		when(chunkRepository.findFirstByShipmentIdOrderByChunkSequenceDesc(SHIPMENT_ID)).thenReturn(Optional.of(tail));
+
+		List<LocationUpdateDTO> points = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			points.add(point(10.0 + i / 1000.0, 106.0, i, i == 3 ? "Đã lấy hàng" : null));
+		}
+		service.append(SHIPMENT_ID, points);
+
+		// One point fills the tail; the other four open chunks 3 and 4
+		ArgumentCaptor<byte[]> appended = ArgumentCaptor.forClass(byte[].class);
+		verify(chunkRepository).appendPoints(eq(40L), appended.capture(), eq(1), eq(START), eq(10_000_000),
+				eq(106_000_000), anyLong());
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		TrailCodec.writePoint(expected, 10_000_000, 106_000_000, epochSecond(START), 10_000_000, 106_000_000,
+				epochSecond(START) - 5);
+		assertArrayEquals(expected.toByteArray(), appended.getValue());
+
+		ArgumentCaptor<TrackingTrailChunk> saved = ArgumentCaptor.forClass(TrackingTrailChunk.class);
+		verify(chunkRepository, times(2)).save(saved.capture());
+		assertEquals(3, saved.getAllValues().get(0).getChunkSequence());
+		assertEquals(3, saved.getAllValues().get(0).getPointCount());
+		assertEquals(4, saved.getAllValues().get(1).getChunkSequence());
+		assertEquals(1, saved.getAllValues().get(1).getPointCount());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<TrackingTrailNote>> notes = ArgumentCaptor.forClass(List.class);
+		verify(noteRepository).saveAll(notes.capture());
+		assertEquals(1, notes.getValue().size());
+		assertEquals(3, notes.getValue().get(0).getChunkSequence());
+		assertEquals(2, notes.getValue().get(0).getPointIndex());
+	}
+
+	@Test
+	void readsDescriptionsBackAtTheirPoints() {
+		TrackingTrailChunk first = chunk(0, point(10.0, 106.0, 0, null), point(10.001, 106.0, 1, null));
+		TrackingTrailChunk second = chunk(1, point(10.002, 106.0, 2, null));
+		when(chunkRepository.findByShipmentIdOrderByChunkSequenceAsc(SHIPMENT_ID)).thenReturn(List.of(first, second));
+		when(noteRepository.findByShipmentId(SHIPMENT_ID)).thenReturn(List.of(
+				TrackingTrailNote.builder().chunkSequence(1).pointIndex(0).description("Giao thành công").build(),
+				TrackingTrailNote.builder().chunkSequence(0).pointIndex(1).description("Kẹt xe").build()));
+
+		TrackingTrailDTO trail = service.getTrail(SHIPMENT_ID);
+
+		assertEquals(3, trail.getPointCount());
+		assertArrayEquals(new double[] { 10.0, 10.001, 10.002 }, trail.getLatitudes(), 1e-9);
+		assertNull(trail.getDescriptions()[0]);
+		assertEquals("Kẹt xe", trail.getDescriptions()[1]);
+		assertEquals("Giao thành công", trail.getDescriptions()[2]);
+	}
+
+	private static TrackingTrailChunk chunk(int sequence, LocationUpdateDTO... points) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int previousLatitude = 0;
+		int previousLongitude = 0;
+		long previousSecond = 0;
+		for (LocationUpdateDTO point : points) {
+			int latitude = TrailCodec.toMicroDegrees(point.getLatitude());
+			int longitude = TrailCodec.toMicroDegrees(point.getLongitude());
+			long second = epochSecond(point.getCreatedAt());
+			TrailCodec.writePoint(out, latitude, longitude, second, previousLatitude, previousLongitude,
+					previousSecond);
+			previousLatitude = latitude;
+			previousLongitude = longitude;
+			previousSecond = second;
+		}
+		return TrackingTrailChunk.builder()
+				.shipmentId(SHIPMENT_ID)
+				.chunkSequence(sequence)
+				.pointCount(points.length)
+				.data(out.toByteArray())
+				.build();
+	}
+
+	private static long epochSecond(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+	}
+
+	private static LocationUpdateDTO point(double latitude, double longitude, int second, String description) {
+		return LocationUpdateDTO.builder()
+				.shipmentId(SHIPMENT_ID)
+				.latitude(latitude)
+				.longitude(longitude)
+				.description(description)
+				.createdAt(START.plusSeconds(second))
+				.build();
+	}
+}
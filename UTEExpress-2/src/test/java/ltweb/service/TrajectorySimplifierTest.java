@@ -0,0 +1,134 @@
+package ltweb.service;
+
+import ltweb.dto.LocationUpdateDTO;
+import ltweb.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrajectorySimplifierTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 8, 0);
+	// About 11 m of latitude
+	private static final double STEP = 0.0001;
+
+	@Test
+	void straightLineKeepsOnlyEndpoints() {
+		TrajectorySimplifier simplifier = new TrajectorySimplifier(10, 3_600, 1_000);
+		List<LocationUpdateDTO> points = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			points.add(point(i * STEP, 0, i));
+		}
+
+		List<LocationUpdateDTO> kept = run(simplifier, points);
+
+		assertEquals(2, kept.size());
+		assertSame(points.get(0), kept.get(0));
+		assertSame(points.get(49), kept.get(1));
+	}
+
+	@Test
+	void keepsTheCorner() {
+		TrajectorySimplifier simplifier = new TrajectorySimplifier(10, 3_600, 1_000);
+		List<LocationUpdateDTO> points = new ArrayList<>();
+		for (int i = 0; i <= 20; i++) {
+			points.add(point(i * STEP, 0, i));
+		}
+		for (int i = 1; i <= 20; i++) {
+			points.add(point(20 * STEP, i * STEP, 20 + i));
+		}
+
+		List<LocationUpdateDTO> kept = run(simplifier, points);
+
+		assertEquals(3, kept.size());
+		assertSame(points.get(20), kept.get(1));
+	}
+
+	@Test
+	void heartbeatAfterMaxGap() {
+		TrajectorySimplifier simplifier = new TrajectorySimplifier(10, 60, 1_000);
+		List<LocationUpdateDTO> kept = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			// Parked: one ping every 20 seconds at the same spot
+			kept.addAll(simplifier.offer(point(0, 0, i * 20)));
+		}
+		assertEquals(List.of(0L, 60L, 120L, 180L), kept.stream().map(TrajectorySimplifierTest::seconds).toList());
+	}
+
+	@Test
+	void droppedPointsStayWithinToleranceOfTheKeptPolyline() {
+		Random random = new Random(11);
+		double tolerance = 25;
+		TrajectorySimplifier simplifier = new TrajectorySimplifier(tolerance, 300, 64);
+		List<LocationUpdateDTO> points = new ArrayList<>();
+		double latitude = 10.77;
+		double longitude = 106.70;
+		double heading = 0;
+		for (int i = 0; i < 3_000; i++) {
+			heading += random.nextGaussian() * 0.3;
+			latitude += Math.cos(heading) * STEP;
+			longitude += Math.sin(heading) * STEP;
+			points.add(point(latitude, longitude, i * 5L));
+		}
+
+		List<LocationUpdateDTO> kept = run(simplifier, points);
+
+		assertTrue(kept.size() < points.size() / 2, "kept " + kept.size());
+		assertSame(points.get(0), kept.get(0));
+		assertSame(points.get(points.size() - 1), kept.get(kept.size() - 1));
+		int next = 0;
+		for (int k = 1; k < kept.size(); k++) {
+			LocationUpdateDTO from = kept.get(k - 1);
+			LocationUpdateDTO to = kept.get(k);
+			while (points.get(next) != to) {
+				LocationUpdateDTO point = points.get(next++);
+				assertTrue(segmentDistanceMeters(point, from, to) <= tolerance + 1e-6, "point at " + seconds(point));
+			}
+			// The window limit also bounds how many points one segment may replace
+			assertTrue(seconds(to) - seconds(from) <= 300);
+		}
+	}
+
+	private static List<LocationUpdateDTO> run(TrajectorySimplifier simplifier, List<LocationUpdateDTO> points) {
+		List<LocationUpdateDTO> kept = new ArrayList<>();
+		for (LocationUpdateDTO point : points) {
+			kept.addAll(simplifier.offer(point));
+		}
+		kept.addAll(simplifier.finish());
+		return kept;
+	}
+
+	private static double segmentDistanceMeters(LocationUpdateDTO point, LocationUpdateDTO from,
+			LocationUpdateDTO to) {
+		double metersPerDegree = GeoUtils.EARTH_RADIUS_KM * 1000 * Math.PI / 180;
+		double cosLat = Math.cos(Math.toRadians(from.getLatitude()));
+		double ex = (to.getLongitude() - from.getLongitude()) * cosLat * metersPerDegree;
+		double ey = (to.getLatitude() - from.getLatitude()) * metersPerDegree;
+		double px = (point.getLongitude() - from.getLongitude()) * cosLat * metersPerDegree;
+		double py = (point.getLatitude() - from.getLatitude()) * metersPerDegree;
+		double lengthSquared = ex * ex + ey * ey;
+		double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * ex + py * ey) / lengthSquared));
+		return Math.hypot(px - t * ex, py - t * ey);
+	}
+
+	private static LocationUpdateDTO point(double latitude, double longitude, long second) {
+		return LocationUpdateDTO.builder()
+				.shipmentId(1L)
+				.latitude(latitude)
+				.longitude(longitude)
+				.createdAt(START.plusSeconds(second))
+				.build();
+	}
+
+	private static long seconds(LocationUpdateDTO point) {
+		return Duration.between(START, point.getCreatedAt()).getSeconds();
+	}
+}
@@ -0,0 +1,122 @@
+package ltweb.service;
+
+import ltweb.entity.Customer;
+import ltweb.entity.NotificationType;
+import ltweb.entity.User;
+import ltweb.event.NotificationRequestedEvent;
+import ltweb.repository.NotificationRepository;
+import ltweb.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSessionRegistryTest {
+
+	private static final long ALICE_USER_ID = 7L;
+	// Alice's customer row; equal in value to Bob's user id
+	private static final long ALICE_CUSTOMER_ID = 3L;
+	private static final long BOB_USER_ID = 3L;
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final UserSessionRegistry registry = new UserSessionRegistry(userRepository);
+
+	private final User alice = User.builder().id(ALICE_USER_ID).username("alice").build();
+	private final User bob = User.builder().id(BOB_USER_ID).username("bob").build();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(registry, "brokerMode", "SIMPLE");
+		ReflectionTestUtils.setField(registry, "cacheMaxSize", 100);
+		ReflectionTestUtils.setField(registry, "cacheTtlSeconds", 60L);
+		registry.init();
+		when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+		when(userRepository.findByUsername("bob")).thenReturn(Optional.of(bob));
+		when(userRepository.findById(ALICE_USER_ID)).thenReturn(Optional.of(alice));
+		when(userRepository.findById(BOB_USER_ID)).thenReturn(Optional.of(bob));
+	}
+
+	@Test
+	void resolvesRecipientsByUserIdOnly() {
+		registry.onConnected(connected("s1", "alice"));
+
+		assertEquals("alice", registry.findDeliveryTarget(ALICE_USER_ID));
+		// Bob shares the number with Alice's customer id but is not connected
+		assertNull(registry.findDeliveryTarget(ALICE_CUSTOMER_ID));
+	}
+
+	@Test
+	void customerNotificationsAreAddressedToTheCustomersUser() {
+		ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+		NotificationService notificationService = new NotificationService(mock(NotificationRepository.class),
+				userRepository, publisher);
+		Customer customer = Customer.builder().id(ALICE_CUSTOMER_ID).user(alice).build();
+
+		notificationService.createCustomerNotification(customer, "Đơn hàng đã giao", NotificationType.ORDER_ASSIGNED,
+				null);
+
+		ArgumentCaptor<NotificationRequestedEvent> event = ArgumentCaptor.forClass(NotificationRequestedEvent.class);
+		verify(publisher).publishEvent(event.capture());
+		assertEquals(ALICE_USER_ID, event.getValue().getUserId());
+
+		registry.onConnected(connected("s1", "alice"));
+		registry.onConnected(connected("s2", "bob"));
+		assertEquals("alice", registry.findDeliveryTarget(event.getValue().getUserId()));
+	}
+
+	@Test
+	void userGoesOfflineWithTheLastSession() {
+		registry.onConnected(connected("s1", "alice"));
+		registry.onConnected(connected("s2", "alice"));
+
+		registry.onDisconnect(disconnected("s1", "alice"));
+		assertEquals("alice", registry.findDeliveryTarget(ALICE_USER_ID));
+
+		registry.onDisconnect(disconnected("s2", "alice"));
+		assertNull(registry.findDeliveryTarget(ALICE_USER_ID));
+	}
+
+	@Test
+	void otherNodesSessionsAreLookedUpByUserId() {
+		ReflectionTestUtils.setField(registry, "brokerMode", "RELAY");
+
+		assertEquals("bob", registry.findDeliveryTarget(BOB_USER_ID));
+		assertNull(registry.findDeliveryTarget(99L));
+	}
+
+	private static SessionConnectedEvent connected(String sessionId, String username) {
+		return new SessionConnectedEvent(new Object(), message(StompCommand.CONNECTED, sessionId), principal(username));
+	}
+
+	private static SessionDisconnectEvent disconnected(String sessionId, String username) {
+		return new SessionDisconnectEvent(new Object(), message(StompCommand.DISCONNECT, sessionId), sessionId,
+				CloseStatus.NORMAL, principal(username));
+	}
+
+	private static Message<byte[]> message(StompCommand command, String sessionId) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+		accessor.setSessionId(sessionId);
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+
+	private static Principal principal(String username) {
+		return () -> username;
+	}
+}
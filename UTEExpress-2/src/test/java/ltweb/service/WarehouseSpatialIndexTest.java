@@ -0,0 +1,86 @@
+package ltweb.service;
+
+import ltweb.entity.Warehouse;
+import ltweb.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarehouseSpatialIndexTest {
+
+	@Test
+	void findsNearestHub() {
+		List<Warehouse> hubs = List.of(
+				warehouse(1, 21.0285, 105.8542),
+				warehouse(2, 16.0544, 108.2022),
+				warehouse(3, 10.7769, 106.7009),
+				warehouse(4, null, null));
+		WarehouseSpatialIndex index = WarehouseSpatialIndex.build(hubs);
+
+		assertEquals(3, index.size());
+		// Hue, Can Tho, Hai Phong
+		assertEquals(2L, index.findNearest(16.4637, 107.5909).getId());
+		assertEquals(3L, index.findNearest(10.0452, 105.7469).getId());
+		assertEquals(1L, index.findNearest(20.8449, 106.6881).getId());
+		assertNull(index.get(4L));
+	}
+
+	@Test
+	void placesWarehousesWithoutCoordinatesWhereTheyAreLocated() {
+		// Warehouse 2 has no coordinates of its own; the locator puts it in Danang
+		List<Warehouse> hubs = List.of(warehouse(1, 21.0285, 105.8542), warehouse(2, null, null));
+		WarehouseSpatialIndex index = WarehouseSpatialIndex.build(hubs, w -> w.getLatitude() != null
+				? new double[] { w.getLatitude(), w.getLongitude() }
+				: new double[] { 16.0544, 108.2022 });
+
+		assertEquals(2, index.size());
+		assertEquals(2L, index.findNearest(16.4637, 107.5909).getId());
+	}
+
+	@Test
+	void emptyIndexFindsNothing() {
+		WarehouseSpatialIndex index = WarehouseSpatialIndex.build(List.of());
+		assertNull(index.findNearest(21.0, 105.0));
+		assertTrue(index.findNearest(21.0, 105.0, 3).isEmpty());
+	}
+
+	@Test
+	void kNearestMatchesBruteForce() {
+		Random random = new Random(7);
+		List<Warehouse> warehouses = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			// The whole globe, so poles and the antimeridian are covered
+			warehouses.add(warehouse(i + 1, random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+		}
+		WarehouseSpatialIndex index = WarehouseSpatialIndex.build(warehouses);
+
+		for (int query = 0; query < 200; query++) {
+			double latitude = random.nextDouble() * 180 - 90;
+			double longitude = random.nextDouble() * 360 - 180;
+			int k = 1 + random.nextInt(8);
+
+			List<Warehouse> expected = new ArrayList<>(warehouses);
+			expected.sort(Comparator.comparingDouble(w -> GeoUtils.haversineKm(latitude, longitude,
+					w.getLatitude(), w.getLongitude())));
+			List<WarehouseSpatialIndex.Neighbour> actual = index.findNearest(latitude, longitude, k);
+
+			assertEquals(k, actual.size());
+			for (int i = 0; i < k; i++) {
+				Warehouse want = expected.get(i);
+				double wantKm = GeoUtils.haversineKm(latitude, longitude, want.getLatitude(), want.getLongitude());
+				assertEquals(wantKm, actual.get(i).getDistanceKm(), 1e-6);
+			}
+		}
+	}
+
+	private static Warehouse warehouse(long id, Double latitude, Double longitude) {
+		return Warehouse.builder().id(id).latitude(latitude).longitude(longitude).build();
+	}
+}
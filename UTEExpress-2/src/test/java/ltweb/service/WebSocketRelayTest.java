@@ -0,0 +1,60 @@
+package ltweb.service;
+
+import ltweb.event.RealtimeMessageEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class WebSocketRelayTest {
+
+	private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+	private final WebSocketRelay relay = new WebSocketRelay(messagingTemplate, mock(ApplicationEventPublisher.class));
+	// Drained by hand instead of by the relay thread
+	private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(relay, "queue", queue);
+	}
+
+	@Test
+	void pendingPayloadIsReplacedByANewerOneWithTheSameKey() {
+		relay.onRealtimeMessage(new RealtimeMessageEvent("/topic/support", "first", "conversation-1"));
+		relay.onRealtimeMessage(new RealtimeMessageEvent("/topic/support", "second", "conversation-1"));
+		relay.onRealtimeMessage(new RealtimeMessageEvent("/topic/support", "other", "conversation-2"));
+		drain();
+
+		verify(messagingTemplate, never()).convertAndSend("/topic/support", (Object) "first");
+		verify(messagingTemplate).convertAndSend("/topic/support", (Object) "second");
+		verify(messagingTemplate).convertAndSend("/topic/support", (Object) "other");
+	}
+
+	@Test
+	void messagesWithoutKeyAreAllSentInOrder() {
+		relay.onRealtimeMessage(new RealtimeMessageEvent("/topic/chat/1", "hello", null));
+		relay.onRealtimeMessage(new RealtimeMessageEvent("/topic/chat/1", "again", null));
+		drain();
+
+		InOrder order = inOrder(messagingTemplate);
+		order.verify(messagingTemplate).convertAndSend("/topic/chat/1", (Object) "hello");
+		order.verify(messagingTemplate).convertAndSend("/topic/chat/1", (Object) "again");
+	}
+
+	private void drain() {
+		Object envelope;
+		while ((envelope = queue.poll()) != null) {
+			ReflectionTestUtils.invokeMethod(relay, "deliver", envelope);
+		}
+	}
+}
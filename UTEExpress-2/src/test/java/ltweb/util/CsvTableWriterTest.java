@@ -0,0 +1,37 @@
+package ltweb.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvTableWriterTest {
+
+    @Test
+    void quotesFieldsWithSeparators() throws Exception {
+        assertEquals("a,\"b,c\",\"say \"\"hi\"\"\",\r\n", write("a", "b,c", "say \"hi\"", null));
+    }
+
+    @Test
+    void prefixesTextThatLooksLikeAFormula() throws Exception {
+        assertEquals("'=1+2,'+84901234567,'-2+3,'@SUM(A1),'\tx,\"'\rx\",a=b\r\n",
+                write("=1+2", "+84901234567", "-2+3", "@SUM(A1)", "\tx", "\rx", "a=b"));
+    }
+
+    @Test
+    void leavesNegativeNumbersAlone() throws Exception {
+        assertEquals("-5,-12.50\r\n", write(-5, new BigDecimal("-12.50")));
+    }
+
+    private static String write(Object... values) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvTableWriter writer = new CsvTableWriter(out)) {
+            writer.writeRow(values);
+        }
+        // Drop the byte order mark
+        return out.toString(StandardCharsets.UTF_8).substring(1);
+    }
+}
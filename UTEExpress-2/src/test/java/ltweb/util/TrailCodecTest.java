@@ -0,0 +1,86 @@
+package ltweb.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrailCodecTest {
+
+    @Test
+    void encodesZigzagVarints() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TrailCodec.writePoint(out, 1, -1, 0, 0, 0, 0);
+        // 64 needs a second byte once zigzagged (128); -64 still fits in one (127)
+        TrailCodec.writePoint(out, 65, -65, 300, 1, -1, 0);
+        assertArrayEquals(new byte[] { 0x02, 0x01, 0x00, (byte) 0x80, 0x01, 0x7F, (byte) 0xD8, 0x04 },
+                out.toByteArray());
+    }
+
+    @Test
+    void roundTripsRandomTrails() {
+        Random random = new Random(3);
+        int count = 5_000;
+        int[] latitudes = new int[count];
+        int[] longitudes = new int[count];
+        long[] seconds = new long[count];
+        int latitude = TrailCodec.toMicroDegrees(10.7769);
+        int longitude = TrailCodec.toMicroDegrees(106.7009);
+        long second = 1_700_000_000L;
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(100) == 0) {
+                // Occasional jumps across the whole coordinate range, and clocks going backwards
+                latitude = random.nextInt(180_000_001) - 90_000_000;
+                longitude = random.nextInt(360_000_001) - 180_000_000;
+                second -= random.nextInt(3_600);
+            } else {
+                latitude += random.nextInt(2_001) - 1_000;
+                longitude += random.nextInt(2_001) - 1_000;
+                second += random.nextInt(30);
+            }
+            latitudes[i] = latitude;
+            longitudes[i] = longitude;
+            seconds[i] = second;
+        }
+
+        // Written in two appends, as a chunk is filled over several ingests
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int split = count / 3;
+        int previousLatitude = 0;
+        int previousLongitude = 0;
+        long previousSecond = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == split) {
+                byte[] head = out.toByteArray();
+                out = new ByteArrayOutputStream();
+                out.writeBytes(head);
+            }
+            TrailCodec.writePoint(out, latitudes[i], longitudes[i], seconds[i], previousLatitude, previousLongitude,
+                    previousSecond);
+            previousLatitude = latitudes[i];
+            previousLongitude = longitudes[i];
+            previousSecond = seconds[i];
+        }
+
+        int[] decodedLatitudes = new int[count + 2];
+        int[] decodedLongitudes = new int[count + 2];
+        long[] decodedSeconds = new long[count + 2];
+        int end = TrailCodec.decode(out.toByteArray(), count, decodedLatitudes, decodedLongitudes, decodedSeconds, 2);
+
+        assertEquals(count + 2, end);
+        for (int i = 0; i < count; i++) {
+            assertEquals(latitudes[i], decodedLatitudes[i + 2]);
+            assertEquals(longitudes[i], decodedLongitudes[i + 2]);
+            assertEquals(seconds[i], decodedSeconds[i + 2]);
+        }
+    }
+
+    @Test
+    void convertsMicroDegrees() {
+        assertEquals(-106_700_900, TrailCodec.toMicroDegrees(-106.7009));
+        assertEquals(21.0285, TrailCodec.toDegrees(TrailCodec.toMicroDegrees(21.0285)), 1e-9);
+    }
+}
@@ -0,0 +1,66 @@
+package ltweb.util;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class XlsxTableWriterTest {
+
+    @Test
+    void writesTheHeaderOnce() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XlsxTableWriter writer = new XlsxTableWriter(out, "Reports")) {
+            writer.writeRow("Code", "Total");
+            writer.writeRow("R-1", new BigDecimal("12.5"));
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(1, workbook.getNumberOfSheets());
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(2, sheet.getPhysicalNumberOfRows());
+            assertEquals("Code", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("R-1", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(12.5, sheet.getRow(1).getCell(1).getNumericCellValue());
+        }
+    }
+
+    @Test
+    void repeatsTheHeaderOnEverySheet() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Three rows per sheet: the header and two data rows
+        try (XlsxTableWriter writer = new XlsxTableWriter(out, "Reports", 3)) {
+            writer.writeRow("Code", "Total");
+            for (int i = 1; i <= 5; i++) {
+                writer.writeRow("R-" + i, i);
+            }
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            assertEquals("Reports", workbook.getSheetName(0));
+            assertEquals("Reports (2)", workbook.getSheetName(1));
+            assertEquals("Reports (3)", workbook.getSheetName(2));
+
+            int expected = 1;
+            for (Sheet sheet : workbook) {
+                assertEquals("Code", sheet.getRow(0).getCell(0).getStringCellValue());
+                for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+                    Row row = sheet.getRow(r);
+                    assertEquals("R-" + expected, row.getCell(0).getStringCellValue());
+                    assertEquals(expected, row.getCell(1).getNumericCellValue());
+                    expected++;
+                }
+            }
+            assertEquals(6, expected);
+            assertEquals(1, workbook.getSheetAt(2).getLastRowNum());
+        }
+    }
+}